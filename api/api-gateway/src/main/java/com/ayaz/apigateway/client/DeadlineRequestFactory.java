@@ -0,0 +1,52 @@
+package com.ayaz.apigateway.client;
+
+import com.ayaz.apigateway.resilience.RequestDeadline;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Request factory that applies the current RequestDeadline to each upstream request
+ * The pool lease and response timeouts are cut to the remaining budget, and the budget is
+ * sent along as X-Request-Timeout so the upstream can give up at the same moment
+ */
+public class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    public DeadlineRequestFactory(HttpClient httpClient) {
+        super(httpClient);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = super.createRequest(uri, httpMethod);
+        Long remaining = RequestDeadline.remainingMillis();
+        if (remaining != null) {
+            request.getHeaders().set(RequestDeadline.HEADER, String.valueOf(Math.max(1, remaining)));
+        }
+        return request;
+    }
+
+    @Override
+    protected RequestConfig createRequestConfig(Object client) {
+        RequestConfig config = super.createRequestConfig(client);
+        Long remaining = RequestDeadline.remainingMillis();
+        if (remaining == null) {
+            return config;
+        }
+        Timeout budget = Timeout.ofMilliseconds(Math.max(1, remaining));
+        RequestConfig.Builder builder = RequestConfig.copy(config);
+        if (config.getResponseTimeout() == null || config.getResponseTimeout().compareTo(budget) > 0) {
+            builder.setResponseTimeout(budget);
+        }
+        if (config.getConnectionRequestTimeout() == null || config.getConnectionRequestTimeout().compareTo(budget) > 0) {
+            builder.setConnectionRequestTimeout(budget);
+        }
+        return builder.build();
+    }
+}
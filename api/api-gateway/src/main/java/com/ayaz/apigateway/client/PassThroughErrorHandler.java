@@ -0,0 +1,42 @@
+package com.ayaz.apigateway.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseErrorHandler;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Response error handler that never throws
+ *
+ * Upstream 4xx and 5xx answers belong to the client and are proxied unchanged instead of
+ * being turned into exceptions. The status of the latest response received on the thread
+ * is remembered so the circuit breaker can still count 5xx answers as failures.
+ */
+public class PassThroughErrorHandler implements ResponseErrorHandler {
+
+    // Status of the latest upstream response received on this thread
+    private static final ThreadLocal<Integer> LAST_STATUS = new ThreadLocal<>();
+
+    @Override
+    public boolean hasError(ClientHttpResponse response) throws IOException {
+        LAST_STATUS.set(response.getStatusCode().value());
+        return false;
+    }
+
+    @Override
+    public void handleError(URI url, HttpMethod method, ClientHttpResponse response) {
+        // Never called - hasError always answers false
+    }
+
+    /**
+     * Returns the status of the latest upstream response on this thread and forgets it
+     * Returns 0 when no response was received since the last call
+     */
+    public static int takeLastStatus() {
+        Integer status = LAST_STATUS.get();
+        LAST_STATUS.remove();
+        return status == null ? 0 : status;
+    }
+}
@@ -0,0 +1,135 @@
+package com.ayaz.apigateway.client;
+
+import com.ayaz.apigateway.config.GatewayProperties;
+import com.ayaz.apigateway.resilience.Bulkhead;
+import com.ayaz.apigateway.resilience.CircuitBreaker;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP client for a single upstream route
+ * Owns a dedicated keep-alive connection pool, bulkhead and circuit breaker so one slow
+ * or failing service cannot exhaust the connections and threads used to reach the others
+ */
+public class UpstreamClient implements Closeable {
+
+    private final GatewayProperties.Route route;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    public UpstreamClient(GatewayProperties.Route route) {
+        this.route = route;
+
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(route.getConnectTimeout()))
+                .setSocketTimeout(toTimeout(route.getReadTimeout()))
+                .setTimeToLive(TimeValue.ofMilliseconds(route.getTimeToLive().toMillis()))
+                .build();
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(route.getMaxConnections())
+                .setMaxConnPerRoute(route.getMaxConnectionsPerHost())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(toTimeout(route.getConnectionRequestTimeout()))
+                .setResponseTimeout(toTimeout(route.getResponseTimeout()))
+                .build();
+
+        // Background eviction keeps stale sockets out of the pool between requests
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(route.getIdleTimeout().toMillis()))
+                // Retries are decided by the gateway, which only repeats idempotent requests
+                .disableAutomaticRetries()
+                .build();
+
+        // Upstream error statuses are proxied to the client, not thrown
+        this.restTemplate = new RestTemplate(new DeadlineRequestFactory(httpClient));
+        this.restTemplate.setErrorHandler(new PassThroughErrorHandler());
+
+        int maxConcurrent = route.getMaxConcurrentRequests() > 0 ? route.getMaxConcurrentRequests() : route.getMaxConnections();
+        this.bulkhead = new Bulkhead(maxConcurrent, route.getBulkheadMaxWait());
+        this.circuitBreaker = new CircuitBreaker(route.getCircuitBreakerWindowSize(), route.getCircuitBreakerMinimumCalls(),
+                route.getCircuitBreakerFailureRate(), route.getCircuitBreakerOpenDuration(),
+                route.getCircuitBreakerHalfOpenCalls());
+    }
+
+    public String getId() {
+        return route.getId();
+    }
+
+    public GatewayProperties.Route getRoute() {
+        return route;
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Returns a snapshot of the connection pool state
+     * Leased, pending and available connections plus the configured maximum
+     */
+    public Map<String, Object> getPoolStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("uri", route.getUri());
+        result.put("leased", stats.getLeased());
+        result.put("pending", stats.getPending());
+        result.put("available", stats.getAvailable());
+        result.put("max", stats.getMax());
+        return result;
+    }
+
+    /**
+     * Returns the circuit breaker state and bulkhead usage of the route
+     */
+    public Map<String, Object> getResilienceStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("circuitBreaker", circuitBreaker.getStats());
+        result.put("bulkhead", bulkhead.getStats());
+        return result;
+    }
+
+    /**
+     * Closes the client and every pooled connection
+     */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    // Converts a configured Duration into an HttpClient Timeout
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+}
@@ -0,0 +1,70 @@
+package com.ayaz.apigateway.client;
+
+import com.ayaz.apigateway.config.GatewayProperties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registry of upstream clients, one per configured route
+ * Looked up by route id (e.g. auth-service, user-service)
+ */
+public class UpstreamClients implements Closeable {
+
+    private final Map<String, UpstreamClient> clients = new LinkedHashMap<>();
+
+    public UpstreamClients(GatewayProperties properties) {
+        for (GatewayProperties.Route route : properties.getRoutes()) {
+            if (route.getId() == null || route.getUri() == null) {
+                throw new IllegalStateException("Every gateway route needs an id and a uri");
+            }
+            clients.put(route.getId(), new UpstreamClient(route));
+        }
+    }
+
+    /**
+     * Returns the client for the given route id
+     * Throws IllegalStateException if the route is not configured
+     */
+    public UpstreamClient get(String routeId) {
+        UpstreamClient client = clients.get(routeId);
+        if (client == null) {
+            throw new IllegalStateException("No gateway route configured with id " + routeId);
+        }
+        return client;
+    }
+
+    /**
+     * Returns pool statistics for every route, keyed by route id
+     */
+    public Map<String, Map<String, Object>> getPoolStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (UpstreamClient client : clients.values()) {
+            stats.put(client.getId(), client.getPoolStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns circuit breaker and bulkhead state for every route, keyed by route id
+     */
+    public Map<String, Map<String, Object>> getResilienceStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (UpstreamClient client : clients.values()) {
+            stats.put(client.getId(), client.getResilienceStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Closes every upstream client when the application shuts down
+     */
+    @Override
+    public void close() throws IOException {
+        for (UpstreamClient client : clients.values()) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.ayaz.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the API Gateway
+ * Binds the gateway.routes[n].* entries from application.properties
+ */
+@ConfigurationProperties(prefix = "gateway")
+public class GatewayProperties {
+
+    private List<Route> routes = new ArrayList<>();
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * A single upstream route
+     * Each route gets its own connection pool sized and timed by these settings
+     */
+    public static class Route {
+        private String id;
+        private String uri;
+        // Route predicates in the form Path=/api/users/** (comma separated for several paths)
+        private List<String> predicates = new ArrayList<>();
+        // Gateway filters applied to the route, e.g. AuthenticationFilter
+        private List<String> filters = new ArrayList<>();
+
+        // Pool sizing - total connections for the route and per upstream host
+        private int maxConnections = 100;
+        private int maxConnectionsPerHost = 50;
+
+        // Time allowed to establish the TCP connection
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        // Maximum inactivity between two data packets once connected
+        private Duration readTimeout = Duration.ofSeconds(30);
+        // Time allowed for the upstream to start sending a response
+        private Duration responseTimeout = Duration.ofSeconds(30);
+        // Time allowed to lease a connection from the pool before failing
+        private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+        // Idle connections older than this are evicted from the pool
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        // Connections are never reused after this age
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        // GET responses are served from the gateway response cache when the upstream allows it
+        private boolean cacheEnabled = false;
+        // Freshness of cacheable responses that carry no max-age or s-maxage
+        private Duration cacheTtl = Duration.ofSeconds(30);
+        // How long an expired response may still be served while it is revalidated in the background
+        private Duration cacheStaleWhileRevalidate = Duration.ofSeconds(30);
+        // Request headers that are part of the cache key; responses varying on others are not stored
+        private List<String> cacheVary = new ArrayList<>(List.of("Accept", "Accept-Encoding"));
+
+        // Sustained requests per second allowed for each user (or client IP); 0 disables rate limiting
+        private double rateLimitPerSecond = 0;
+        // Requests a client may send at once after being idle; 0 means one second's worth
+        private int rateLimitBurst = 0;
+
+        // Requests allowed in flight to the route at once (bulkhead); 0 means max-connections
+        private int maxConcurrentRequests = 0;
+        // How long a request waits for a free bulkhead slot before getting 503
+        private Duration bulkheadMaxWait = Duration.ZERO;
+        // Circuit breaker - opens when failure-rate percent of the last window-size calls failed
+        // (once at least minimum-calls were made), stays open for open-duration, then lets
+        // half-open-calls probes through before closing again
+        private int circuitBreakerWindowSize = 50;
+        private int circuitBreakerMinimumCalls = 20;
+        private int circuitBreakerFailureRate = 50;
+        private Duration circuitBreakerOpenDuration = Duration.ofSeconds(10);
+        private int circuitBreakerHalfOpenCalls = 3;
+        // Extra attempts, on another instance, for idempotent requests without a body whose
+        // connection failed before any response arrived
+        private int retries = 1;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public void setUri(String uri) {
+            this.uri = uri;
+        }
+
+        public List<String> getPredicates() {
+            return predicates;
+        }
+
+        public void setPredicates(List<String> predicates) {
+            this.predicates = predicates;
+        }
+
+        public List<String> getFilters() {
+            return filters;
+        }
+
+        public void setFilters(List<String> filters) {
+            this.filters = filters;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerHost() {
+            return maxConnectionsPerHost;
+        }
+
+        public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public boolean isCacheEnabled() {
+            return cacheEnabled;
+        }
+
+        public void setCacheEnabled(boolean cacheEnabled) {
+            this.cacheEnabled = cacheEnabled;
+        }
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+
+        public Duration getCacheStaleWhileRevalidate() {
+            return cacheStaleWhileRevalidate;
+        }
+
+        public void setCacheStaleWhileRevalidate(Duration cacheStaleWhileRevalidate) {
+            this.cacheStaleWhileRevalidate = cacheStaleWhileRevalidate;
+        }
+
+        public List<String> getCacheVary() {
+            return cacheVary;
+        }
+
+        public void setCacheVary(List<String> cacheVary) {
+            this.cacheVary = cacheVary;
+        }
+
+        public double getRateLimitPerSecond() {
+            return rateLimitPerSecond;
+        }
+
+        public void setRateLimitPerSecond(double rateLimitPerSecond) {
+            this.rateLimitPerSecond = rateLimitPerSecond;
+        }
+
+        public int getRateLimitBurst() {
+            return rateLimitBurst > 0 ? rateLimitBurst : (int) Math.ceil(rateLimitPerSecond);
+        }
+
+        public void setRateLimitBurst(int rateLimitBurst) {
+            this.rateLimitBurst = rateLimitBurst;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public Duration getBulkheadMaxWait() {
+            return bulkheadMaxWait;
+        }
+
+        public void setBulkheadMaxWait(Duration bulkheadMaxWait) {
+            this.bulkheadMaxWait = bulkheadMaxWait;
+        }
+
+        public int getCircuitBreakerWindowSize() {
+            return circuitBreakerWindowSize;
+        }
+
+        public void setCircuitBreakerWindowSize(int circuitBreakerWindowSize) {
+            this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+        }
+
+        public int getCircuitBreakerMinimumCalls() {
+            return circuitBreakerMinimumCalls;
+        }
+
+        public void setCircuitBreakerMinimumCalls(int circuitBreakerMinimumCalls) {
+            this.circuitBreakerMinimumCalls = circuitBreakerMinimumCalls;
+        }
+
+        public int getCircuitBreakerFailureRate() {
+            return circuitBreakerFailureRate;
+        }
+
+        public void setCircuitBreakerFailureRate(int circuitBreakerFailureRate) {
+            this.circuitBreakerFailureRate = circuitBreakerFailureRate;
+        }
+
+        public Duration getCircuitBreakerOpenDuration() {
+            return circuitBreakerOpenDuration;
+        }
+
+        public void setCircuitBreakerOpenDuration(Duration circuitBreakerOpenDuration) {
+            this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+        }
+
+        public int getCircuitBreakerHalfOpenCalls() {
+            return circuitBreakerHalfOpenCalls;
+        }
+
+        public void setCircuitBreakerHalfOpenCalls(int circuitBreakerHalfOpenCalls) {
+            this.circuitBreakerHalfOpenCalls = circuitBreakerHalfOpenCalls;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+    }
+}
@@ -1,22 +1,24 @@
 package com.ayaz.apigateway.config;
 
+import com.ayaz.apigateway.client.UpstreamClients;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 /**
- * Configuration class for REST client
- * Provides RestTemplate bean for making HTTP requests to other services
+ * Configuration class for REST clients
+ * Provides one pooled, keep-alive HTTP client per upstream route
  */
 @Configuration
+@EnableConfigurationProperties(GatewayProperties.class)
 public class RestConfig {
 
     /**
-     * Creates RestTemplate bean for HTTP requests
+     * Creates the upstream client registry from the gateway.routes settings
      * Used by the gateway to communicate with other microservices
      */
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @Bean(destroyMethod = "close")
+    public UpstreamClients upstreamClients(GatewayProperties properties) {
+        return new UpstreamClients(properties);
     }
 }
@@ -1,10 +1,29 @@
 package com.ayaz.apigateway.controller;
 
+import com.ayaz.apigateway.client.UpstreamClient;
+import com.ayaz.apigateway.client.UpstreamClients;
+import com.ayaz.apigateway.loadbalancer.NoAvailableInstanceException;
+import com.ayaz.apigateway.proxy.ResponseCache;
+import com.ayaz.apigateway.proxy.StreamingProxy;
+import com.ayaz.apigateway.proxy.UpstreamCaller;
+import com.ayaz.apigateway.ratelimit.RateLimiter;
+import com.ayaz.apigateway.resilience.DeadlineExceededException;
+import com.ayaz.apigateway.resilience.RequestDeadline;
+import com.ayaz.apigateway.resilience.TransportFailures;
+import com.ayaz.apigateway.resilience.UpstreamUnavailableException;
+import com.ayaz.apigateway.route.RouteLocator;
+import com.ayaz.apigateway.security.RevocationIndex;
+import com.ayaz.apigateway.security.RevocationSync;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.ResourceAccessException;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -15,122 +34,87 @@ import java.util.Map;
 @RestController
 public class GatewayController {
 
-    private final RestTemplate restTemplate;
+    private final UpstreamClients upstreamClients;
+    private final RouteLocator routeLocator;
+    private final UpstreamCaller upstreamCaller;
+    private final StreamingProxy streamingProxy;
+    private final ResponseCache responseCache;
+    private final RateLimiter rateLimiter;
+    private final RevocationIndex revocationIndex;
+    private final RevocationSync revocationSync;
+    private final ObjectMapper objectMapper;
 
-    // Service URLs - configured for local development
-    private static final String AUTH_SERVICE_URL = "http://localhost:9001";
-    private static final String USER_SERVICE_URL = "http://localhost:9002";  
-    private static final String FILE_SERVICE_URL = "http://localhost:9003";
-
-    public GatewayController(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public GatewayController(UpstreamClients upstreamClients, RouteLocator routeLocator,
+                             UpstreamCaller upstreamCaller, StreamingProxy streamingProxy,
+                             ResponseCache responseCache, RateLimiter rateLimiter,
+                             RevocationIndex revocationIndex, RevocationSync revocationSync,
+                             ObjectMapper objectMapper) {
+        this.upstreamClients = upstreamClients;
+        this.routeLocator = routeLocator;
+        this.upstreamCaller = upstreamCaller;
+        this.streamingProxy = streamingProxy;
+        this.responseCache = responseCache;
+        this.rateLimiter = rateLimiter;
+        this.revocationIndex = revocationIndex;
+        this.revocationSync = revocationSync;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Routes authentication requests to auth service
-     * Handles login, register, logout operations
+     * Routes every request to the upstream service matched by the route table
+     * Method, headers, query string and body are forwarded unchanged; GETs on routes with
+     * cache-enabled=true may be answered from the response cache
      */
-    @RequestMapping(value = "/api/auth/**", method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.PATCH})
-    public ResponseEntity<String> routeToAuthService(HttpServletRequest request, @RequestBody(required = false) String body) {
+    @RequestMapping("/**")
+    public void route(HttpServletRequest request, HttpServletResponse response) throws IOException {
         String path = request.getRequestURI();
-        String method = request.getMethod();
-        String targetUrl = AUTH_SERVICE_URL + path;
-        
-        try {
-            // Forward request to auth service
-            ResponseEntity<String> response;
-            switch (method) {
-                case "POST":
-                    response = restTemplate.postForEntity(targetUrl, body, String.class);
-                    break;
-                case "PUT":
-                    restTemplate.put(targetUrl, body);
-                    response = ResponseEntity.ok().build();
-                    break;
-                case "DELETE":
-                    restTemplate.delete(targetUrl);
-                    response = ResponseEntity.ok().build();
-                    break;
-                default:
-                    response = restTemplate.getForEntity(targetUrl, String.class);
-                    break;
-            }
-            return response;
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Error routing to auth service: " + e.getMessage());
+        UpstreamClient client = routeLocator.locate(path);
+        if (client == null) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "No route configured for " + path);
+            return;
         }
-    }
-
-    /**
-     * Routes user management requests to user service
-     * Handles user profile operations
-     */
-    @RequestMapping(value = "/api/users/**", method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.PATCH})
-    public ResponseEntity<String> routeToUserService(HttpServletRequest request, @RequestBody(required = false) String body) {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        String targetUrl = USER_SERVICE_URL + path;
-        
-        try {
-            // Forward request to user service
-            ResponseEntity<String> response;
-            switch (method) {
-                case "POST":
-                    response = restTemplate.postForEntity(targetUrl, body, String.class);
-                    break;
-                case "PUT":
-                    restTemplate.put(targetUrl, body);
-
 
+        String query = request.getQueryString();
+        String pathAndQuery = path + (query != null ? "?" + query : "");
 
-                    response = ResponseEntity.ok().build();
-                    break;
-                case "DELETE":
-                    restTemplate.delete(targetUrl);
-                    response = ResponseEntity.ok().build();
-                    break;
-                default:
-                    response = restTemplate.getForEntity(targetUrl, String.class);
-                    break;
-            }
-            return response;
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Error routing to user service: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Routes file storage requests to file storage service
-     * Handles file upload and delete operations
-     */
-    @RequestMapping(value = "/api/files/**", method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.PATCH})
-    public ResponseEntity<String> routeToFileService(HttpServletRequest request, @RequestBody(required = false) String body) {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        String targetUrl = FILE_SERVICE_URL + path;
-        
+        // Every upstream call made for this request shares one deadline
+        RequestDeadline.set(RequestDeadline.resolve(request, client.getRoute().getResponseTimeout()));
         try {
-            // Forward request to file storage service
-            ResponseEntity<String> response;
-            switch (method) {
-                case "POST":
-                    response = restTemplate.postForEntity(targetUrl, body, String.class);
-                    break;
-                case "PUT":
-                    restTemplate.put(targetUrl, body);
-                    response = ResponseEntity.ok().build();
-                    break;
-                case "DELETE":
-                    restTemplate.delete(targetUrl);
-                    response = ResponseEntity.ok().build();
-                    break;
-                default:
-                    response = restTemplate.getForEntity(targetUrl, String.class);
-                    break;
+            if (responseCache.serve(client, request, response)) {
+                return;
+            }
+            // Stream request and response bodies through the chosen instance; the upstream
+            // status, headers and body reach the client unchanged
+            upstreamCaller.call(client, pathAndQuery, streamingProxy.isRetryable(request), target -> {
+                streamingProxy.forward(client.getRestTemplate(), target, request, response);
+                return null;
+            });
+            responseCache.invalidateAfter(client, request, response);
+        } catch (UpstreamUnavailableException e) {
+            // Circuit open or bulkhead full - fail fast and tell the client when to come back
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        } catch (DeadlineExceededException e) {
+            writeError(response, HttpServletResponse.SC_GATEWAY_TIMEOUT, e.getMessage());
+        } catch (NoAvailableInstanceException e) {
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (ResourceAccessException e) {
+            // Transport failures are the only upstream problems answered by the gateway itself:
+            // 504 when the upstream ran out of time, 502 when it could not be reached or broke off
+            if (TransportFailures.isClientDisconnect(e)) {
+                return;
+            }
+            if (TransportFailures.isTimeout(e)) {
+                writeError(response, HttpServletResponse.SC_GATEWAY_TIMEOUT, "Upstream " + client.getId() + " timed out");
+            } else {
+                writeError(response, HttpServletResponse.SC_BAD_GATEWAY,
+                        "Upstream " + client.getId() + " unreachable: " + e.getMessage());
             }
-            return response;
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Error routing to file service: " + e.getMessage());
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Error routing to " + client.getId() + ": " + e.getMessage());
+        } finally {
+            RequestDeadline.clear();
         }
     }
 
@@ -145,4 +129,65 @@ public class GatewayController {
         response.put("service", "API Gateway");
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Writes a gateway error as a JSON response in the services' {"error": ...} format
+     * Skipped when the upstream response has already started streaming to the client
+     */
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.reset();
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+
+    /**
+     * Connection pool metrics endpoint
+     * Returns leased, pending and available connections for every upstream route
+     */
+    @GetMapping("/gateway/pools")
+    public ResponseEntity<Map<String, Map<String, Object>>> poolStats() {
+        return ResponseEntity.ok(upstreamClients.getPoolStats());
+    }
+
+    /**
+     * Revocation index metrics endpoint
+     * Returns the number of revoked tokens and users and the time of the last sync
+     */
+    @GetMapping("/gateway/revocations")
+    public ResponseEntity<Map<String, Object>> revocationStats() {
+        Map<String, Object> stats = new HashMap<>(revocationIndex.getStats());
+        stats.put("lastSync", revocationSync.getLastSync());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Response cache metrics endpoint
+     * Returns stored entries and bytes plus hit, miss and revalidation counters
+     */
+    @GetMapping("/gateway/cache")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(responseCache.getStats());
+    }
+
+    /**
+     * Rate limiter metrics endpoint
+     * Returns the number of tracked client buckets and admitted and rejected requests
+     */
+    @GetMapping("/gateway/rate-limits")
+    public ResponseEntity<Map<String, Object>> rateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+
+    /**
+     * Upstream resilience metrics endpoint
+     * Returns the circuit breaker state and bulkhead usage of every route
+     */
+    @GetMapping("/gateway/circuits")
+    public ResponseEntity<Map<String, Map<String, Object>>> circuitStats() {
+        return ResponseEntity.ok(upstreamClients.getResilienceStats());
+    }
 }
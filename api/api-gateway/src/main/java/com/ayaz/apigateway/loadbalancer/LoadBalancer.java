@@ -0,0 +1,64 @@
+package com.ayaz.apigateway.loadbalancer;
+
+import com.ayaz.apigateway.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses the upstream instance for a route
+ *
+ * Routes with an lb://service-id uri are resolved through the Eureka registry and
+ * balanced with "power of two choices": two random instances are sampled and the one
+ * with fewer outstanding requests wins. Slow instances build up in-flight requests and
+ * stop attracting new ones, without the herding a global least-loaded pick causes.
+ *
+ * Routes with a plain http:// uri always use that single address.
+ */
+@Component
+public class LoadBalancer {
+
+    private static final String LB_SCHEME = "lb://";
+
+    private final ServiceInstanceCache instanceCache;
+    private final Map<String, UpstreamInstance> staticInstances = new ConcurrentHashMap<>();
+
+    public LoadBalancer(ServiceInstanceCache instanceCache) {
+        this.instanceCache = instanceCache;
+    }
+
+    /**
+     * Picks an instance for the route
+     * Throws NoAvailableInstanceException when the service has no registered instances
+     */
+    public UpstreamInstance choose(GatewayProperties.Route route) {
+        String uri = route.getUri();
+        if (!uri.startsWith(LB_SCHEME)) {
+            return staticInstances.computeIfAbsent(route.getId(), id -> new UpstreamInstance(id, uri));
+        }
+
+        String serviceId = uri.substring(LB_SCHEME.length());
+        List<UpstreamInstance> instances = instanceCache.getInstances(serviceId);
+        int size = instances.size();
+        if (size == 0) {
+            throw new NoAvailableInstanceException(serviceId);
+        }
+        if (size == 1) {
+            return instances.get(0);
+        }
+
+        // Sample two distinct instances and keep the less busy one
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamInstance a = instances.get(first);
+        UpstreamInstance b = instances.get(second);
+        return a.getOutstandingRequests() <= b.getOutstandingRequests() ? a : b;
+    }
+}
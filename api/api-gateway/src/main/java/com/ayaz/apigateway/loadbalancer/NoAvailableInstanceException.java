@@ -0,0 +1,11 @@
+package com.ayaz.apigateway.loadbalancer;
+
+/**
+ * Thrown when a route points at a service with no registered instances
+ */
+public class NoAvailableInstanceException extends RuntimeException {
+
+    public NoAvailableInstanceException(String serviceId) {
+        super("No available instances for service " + serviceId);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ayaz.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locally cached instance lists for services resolved through Eureka
+ * Lists are rebuilt whenever the Eureka client refreshes its registry, so request
+ * handling only ever reads an immutable in-memory list. A request only loads a list
+ * the first time its service is used; an empty list is kept like any other until the
+ * next registry refresh. Loads and rebuilds of one service run under the map's lock
+ * for that key, so they never interleave and each instance keeps a single object.
+ */
+@Component
+public class ServiceInstanceCache {
+
+    private final DiscoveryClient discoveryClient;
+    private final Map<String, List<UpstreamInstance>> instancesByService = new ConcurrentHashMap<>();
+
+    public ServiceInstanceCache(DiscoveryClient discoveryClient) {
+        this.discoveryClient = discoveryClient;
+    }
+
+    /**
+     * Returns the cached instances of a service
+     * Loads the list from the discovery client on first use only; afterwards the list,
+     * even an empty one, changes only when the registry is refreshed
+     */
+    public List<UpstreamInstance> getInstances(String serviceId) {
+        List<UpstreamInstance> instances = instancesByService.get(serviceId);
+        if (instances != null) {
+            return instances;
+        }
+        return instancesByService.computeIfAbsent(serviceId, id -> load(id, List.of()));
+    }
+
+    /**
+     * Rebuilds every cached list after the Eureka client fetched a new registry
+     */
+    @EventListener(HeartbeatEvent.class)
+    public void onRegistryRefreshed() {
+        for (String serviceId : instancesByService.keySet()) {
+            instancesByService.computeIfPresent(serviceId, this::load);
+        }
+    }
+
+    /**
+     * Reads the instances of one service from the discovery client's local registry copy
+     * Instances that are still registered keep their object from current, and with it
+     * their outstanding request count
+     */
+    private List<UpstreamInstance> load(String serviceId, List<UpstreamInstance> current) {
+        Map<String, UpstreamInstance> previous = new HashMap<>();
+        for (UpstreamInstance instance : current) {
+            previous.put(instance.getId(), instance);
+        }
+
+        List<UpstreamInstance> instances = new ArrayList<>();
+        for (ServiceInstance serviceInstance : discoveryClient.getInstances(serviceId)) {
+            String baseUrl = serviceInstance.getUri().toString();
+            String id = serviceInstance.getInstanceId() != null ? serviceInstance.getInstanceId() : baseUrl;
+            UpstreamInstance existing = previous.get(id);
+            instances.add(existing != null && existing.getBaseUrl().equals(baseUrl)
+                    ? existing
+                    : new UpstreamInstance(id, baseUrl));
+        }
+
+        return List.copyOf(instances);
+    }
+}
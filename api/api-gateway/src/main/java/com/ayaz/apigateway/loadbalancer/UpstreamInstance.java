@@ -0,0 +1,46 @@
+package com.ayaz.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single upstream service instance with its in-flight request count
+ * The count is what the load balancer uses to steer traffic away from slow instances
+ */
+public class UpstreamInstance {
+
+    private final String id;
+    private final String baseUrl;
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+
+    public UpstreamInstance(String id, String baseUrl) {
+        this.id = id;
+        this.baseUrl = baseUrl;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    /**
+     * Marks the start of a request sent to this instance
+     */
+    public void acquire() {
+        outstandingRequests.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of a request sent to this instance
+     * Must be called once for every acquire, usually from a finally block
+     */
+    public void release() {
+        outstandingRequests.decrementAndGet();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ayaz.apigateway.proxy;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Set;
+
+/**
+ * An upstream response held in the gateway response cache
+ * Immutable - a revalidated response replaces the entry instead of changing it
+ */
+public class CachedResponse {
+
+    private final int status;
+    // End-to-end headers only; hop-by-hop headers and Content-Length are not stored
+    private final HttpHeaders headers;
+    private final byte[] body;
+    // Time the response was received, plus the Age the upstream reported (epoch millis)
+    private final long storedAt;
+    private final long initialAgeMs;
+    // Served without contacting the upstream until freshUntil, then served stale while
+    // a background revalidation runs until staleUntil (epoch millis)
+    private final long freshUntil;
+    private final long staleUntil;
+    // Cache-Tag values, under which the entry is invalidated together with its path
+    private final Set<String> tags;
+
+    public CachedResponse(int status, HttpHeaders headers, byte[] body, long storedAt,
+                          long initialAgeMs, long freshUntil, long staleUntil) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.storedAt = storedAt;
+        this.initialAgeMs = initialAgeMs;
+        this.freshUntil = freshUntil;
+        this.staleUntil = staleUntil;
+        this.tags = ResponseCache.tags(headers.get(ResponseCache.CACHE_TAG));
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public long getStoredAt() {
+        return storedAt;
+    }
+
+    public long getFreshUntil() {
+        return freshUntil;
+    }
+
+    public long getStaleUntil() {
+        return staleUntil;
+    }
+
+    public String getETag() {
+        return headers.getETag();
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Returns true while the response can be served without contacting the upstream
+     */
+    public boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    /**
+     * Returns true while a stale response can still be served during revalidation
+     */
+    public boolean isServableStale(long now) {
+        return now < staleUntil;
+    }
+
+    /**
+     * Returns the Age of the response in whole seconds (RFC 9111 section 5.1)
+     */
+    public long ageSeconds(long now) {
+        return Math.max(0, now - storedAt + initialAgeMs) / 1000;
+    }
+
+    /**
+     * Returns the approximate memory taken by the entry, used to bound the cache by bytes
+     */
+    public int weight() {
+        long headerBytes = 0;
+        for (var header : headers.entrySet()) {
+            headerBytes += header.getKey().length();
+            for (String value : header.getValue()) {
+                headerBytes += value.length();
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, body.length + headerBytes + 64);
+    }
+}
@@ -0,0 +1,562 @@
+package com.ayaz.apigateway.proxy;
+
+import com.ayaz.apigateway.client.UpstreamClient;
+import com.ayaz.apigateway.config.GatewayProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared cache for GET responses on routes with cache-enabled=true
+ *
+ * Entries are keyed on route, path, query and the route's cache-vary request headers, and
+ * the cache as a whole is bounded by bytes. The upstream Cache-Control header decides what
+ * is stored and for how long. Stored ETags let an expired entry be revalidated with
+ * If-None-Match instead of being fetched again. Inside the stale-while-revalidate window a
+ * stale entry is served at once while one background request refreshes it, and concurrent
+ * misses for the same key share a single upstream call.
+ *
+ * A successful write drops the stored variants of its own path and of every Cache-Tag
+ * value the upstream put on the write's response, so one resource served under several
+ * paths (e.g. a user by id and by username) is invalidated as a whole when the upstream
+ * tags both reads and writes with it. Invalidation only reaches this gateway instance;
+ * other instances serve their copy until its max-age runs out, so upstreams should keep
+ * max-age short.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    // Statuses stored when the upstream allows it (heuristically cacheable, RFC 9110 section 15.1)
+    private static final Set<Integer> CACHEABLE_STATUSES = Set.of(200, 203, 300, 301, 404, 410);
+    // Comma-separated resource tags on upstream responses, used for invalidation
+    static final String CACHE_TAG = "Cache-Tag";
+
+    private final UpstreamCaller upstreamCaller;
+    private final StreamingProxy streamingProxy;
+    private final int maxEntryBytes;
+    private final long validatorRetentionMs;
+    private final Cache<String, CachedResponse> entries;
+    // Route and path -> cache keys of every stored variant, so a write to the path can drop them all
+    private final Map<String, Set<String>> keysByPath = new ConcurrentHashMap<>();
+    // Route and Cache-Tag value -> cache keys of every entry carrying the tag
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    // Upstream fetches in progress, shared by every request for the same key
+    private final Map<String, CompletableFuture<CachedResponse>> inflight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor revalidator;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public ResponseCache(UpstreamCaller upstreamCaller, StreamingProxy streamingProxy,
+                         @Value("${gateway.cache.max-bytes:64MB}") DataSize maxBytes,
+                         @Value("${gateway.cache.max-entry-bytes:1MB}") DataSize maxEntryBytes,
+                         @Value("${gateway.cache.validator-retention:10m}") Duration validatorRetention,
+                         @Value("${gateway.cache.revalidation-threads:2}") int revalidationThreads) {
+        this.upstreamCaller = upstreamCaller;
+        this.streamingProxy = streamingProxy;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes.toBytes(), Integer.MAX_VALUE - 8);
+        this.validatorRetentionMs = validatorRetention.toMillis();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((String key, CachedResponse value) -> value.weight())
+                .expireAfter(new RetentionExpiry())
+                .evictionListener((String key, CachedResponse value, RemovalCause cause) -> unindex(key, value))
+                .build();
+        this.revalidator = new ThreadPoolExecutor(revalidationThreads, revalidationThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(256), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-revalidate");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        revalidator.shutdownNow();
+    }
+
+    /**
+     * Answers a GET request from the cache when its route has caching enabled
+     * Returns false when the request bypasses the cache or a shared fetch produced nothing
+     * storable; the caller then proxies the request as usual
+     */
+    public boolean serve(UpstreamClient client, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        GatewayProperties.Route route = client.getRoute();
+        if (!route.isCacheEnabled() || !HttpMethod.GET.matches(request.getMethod())) {
+            return false;
+        }
+        Map<String, String> requestDirectives = directives(request.getHeader(HttpHeaders.CACHE_CONTROL));
+        if (requestDirectives.containsKey("no-store") || requestDirectives.containsKey("no-cache")) {
+            return false;
+        }
+
+        String key = cacheKey(client, request);
+        long now = System.currentTimeMillis();
+        CachedResponse cached = entries.getIfPresent(key);
+        if (cached != null && cached.isFresh(now)) {
+            hits.increment();
+            write(cached, request, response, "HIT");
+            return true;
+        }
+
+        // Snapshot the headers now - a background revalidation outlives this request
+        String query = request.getQueryString();
+        String pathAndQuery = request.getRequestURI() + (query != null ? "?" + query : "");
+        HttpHeaders headers = new HttpHeaders();
+        StreamingProxy.copyRequestHeaders(request, headers);
+        // Client conditionals are answered from the entry, never passed upstream
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        boolean authorized = request.getHeader(HttpHeaders.AUTHORIZATION) != null;
+
+        if (cached != null && cached.isServableStale(now)) {
+            staleHits.increment();
+            revalidateInBackground(client, key, pathAndQuery, headers, authorized, cached);
+            write(cached, request, response, "STALE");
+            return true;
+        }
+
+        CompletableFuture<CachedResponse> fetch = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = inflight.putIfAbsent(key, fetch);
+        if (existing != null) {
+            coalesced.increment();
+            CachedResponse shared = await(existing, route);
+            if (shared == null) {
+                return false;
+            }
+            write(shared, request, response, "HIT");
+            return true;
+        }
+
+        misses.increment();
+        try {
+            CachedResponse fetched = fetch(client, key, pathAndQuery, headers, authorized, cached, response);
+            fetch.complete(fetched);
+            if (fetched != null) {
+                boolean wasRevalidated = cached != null && fetched.getBody() == cached.getBody();
+                write(fetched, request, response, wasRevalidated ? "REVALIDATED" : "MISS");
+            }
+            return true;
+        } catch (RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, fetch);
+        }
+    }
+
+    /**
+     * Drops every cached variant of the request path, and every entry sharing a Cache-Tag with
+     * the response, after a successful unsafe request (RFC 9111 section 4.4), so e.g. a PATCH
+     * is visible to the next GET of any path serving the same resource
+     */
+    public void invalidateAfter(UpstreamClient client, HttpServletRequest request, HttpServletResponse response) {
+        String method = request.getMethod();
+        if (!client.getRoute().isCacheEnabled() || response.getStatus() >= 400
+                || HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return;
+        }
+        Set<String> keys = new HashSet<>();
+        collect(keysByPath, client.getId() + " " + request.getRequestURI(), keys);
+        for (String tag : tags(response.getHeaders(CACHE_TAG))) {
+            collect(keysByTag, client.getId() + " " + tag, keys);
+        }
+        keys.forEach(this::remove);
+    }
+
+    /**
+     * Returns entry count, stored bytes and hit/miss counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.estimatedSize());
+        stats.put("bytes", entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("revalidated", revalidated.sum());
+        stats.put("notModified", notModified.sum());
+        return stats;
+    }
+
+    /**
+     * Starts a background revalidation of a stale entry unless one is already running
+     */
+    private void revalidateInBackground(UpstreamClient client, String key, String pathAndQuery,
+                                        HttpHeaders headers, boolean authorized, CachedResponse cached) {
+        CompletableFuture<CachedResponse> fetch = new CompletableFuture<>();
+        if (inflight.putIfAbsent(key, fetch) != null) {
+            return;
+        }
+        try {
+            revalidator.execute(() -> {
+                try {
+                    fetch.complete(fetch(client, key, pathAndQuery, headers, authorized, cached, null));
+                } catch (RuntimeException e) {
+                    log.warn("Revalidating {} on {} failed: {}", pathAndQuery, client.getId(), e.getMessage());
+                    fetch.completeExceptionally(e);
+                } finally {
+                    inflight.remove(key, fetch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Revalidation backlog is full - a later request refreshes the entry instead
+            fetch.complete(null);
+            inflight.remove(key, fetch);
+        }
+    }
+
+    /**
+     * Fetches the key from the upstream, conditionally when a stored entry has an ETag
+     * Responses that cannot be stored are streamed to writeThrough (when given) and give null
+     */
+    private CachedResponse fetch(UpstreamClient client, String key, String pathAndQuery, HttpHeaders headers,
+                                 boolean authorized, CachedResponse cached, HttpServletResponse writeThrough) {
+        return upstreamCaller.call(client, pathAndQuery, true, target -> client.getRestTemplate().execute(target, HttpMethod.GET,
+                clientRequest -> {
+                    clientRequest.getHeaders().putAll(headers);
+                    if (cached != null && cached.getETag() != null) {
+                        clientRequest.getHeaders().setIfNoneMatch(cached.getETag());
+                    }
+                },
+                clientResponse -> store(client.getRoute(), key, authorized, cached, clientResponse, writeThrough)));
+    }
+
+    /**
+     * Turns an upstream response into a cache entry and stores it when Cache-Control allows
+     */
+    private CachedResponse store(GatewayProperties.Route route, String key, boolean authorized, CachedResponse cached,
+                                 ClientHttpResponse clientResponse, HttpServletResponse writeThrough) throws IOException {
+        long now = System.currentTimeMillis();
+        int status = clientResponse.getStatusCode().value();
+        HttpHeaders upstreamHeaders = StreamingProxy.endToEndHeaders(clientResponse.getHeaders());
+
+        // 304 - the stored body is still current, only its headers and lifetime are renewed
+        if (status == HttpServletResponse.SC_NOT_MODIFIED && cached != null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(cached.getHeaders());
+            headers.putAll(upstreamHeaders);
+            revalidated.increment();
+            if (!isStorable(route, authorized, cached.getStatus(), headers)) {
+                remove(key);
+                return new CachedResponse(cached.getStatus(), headers, cached.getBody(), now, 0, now, now);
+            }
+            return put(key, toEntry(route, cached.getStatus(), headers, cached.getBody(), now));
+        }
+
+        long contentLength = clientResponse.getHeaders().getContentLength();
+        if (!isStorable(route, authorized, status, upstreamHeaders) || contentLength > maxEntryBytes) {
+            remove(key);
+            if (writeThrough != null) {
+                streamingProxy.writeResponse(clientResponse, writeThrough);
+            }
+            return null;
+        }
+
+        // Bodies of unknown length are buffered up to the limit, then streamed through uncached
+        InputStream body = clientResponse.getBody();
+        byte[] buffered = body.readNBytes(maxEntryBytes + 1);
+        if (buffered.length > maxEntryBytes) {
+            remove(key);
+            if (writeThrough != null) {
+                streamingProxy.writeResponse(clientResponse,
+                        new SequenceInputStream(new ByteArrayInputStream(buffered), body), writeThrough);
+            }
+            return null;
+        }
+        return put(key, toEntry(route, status, upstreamHeaders, buffered, now));
+    }
+
+    /**
+     * Returns true when a shared cache may store the response (RFC 9111 section 3)
+     */
+    private static boolean isStorable(GatewayProperties.Route route, boolean authorized, int status, HttpHeaders headers) {
+        if (!CACHEABLE_STATUSES.contains(status) || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        Map<String, String> directives = directives(headers.getCacheControl());
+        if (directives.containsKey("no-store") || directives.containsKey("private")) {
+            return false;
+        }
+        // Answers to requests carrying credentials are only shared when the upstream says so
+        if (authorized && !directives.containsKey("public") && !directives.containsKey("s-maxage")
+                && !directives.containsKey("must-revalidate")) {
+            return false;
+        }
+        // no-cache means every use needs revalidation, which is only possible with a validator
+        if (directives.containsKey("no-cache") && headers.getETag() == null) {
+            return false;
+        }
+        for (String name : headers.getVary()) {
+            if (name.equals("*") || route.getCacheVary().stream().noneMatch(name::equalsIgnoreCase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds an entry whose lifetime comes from s-maxage, max-age or the route's cache-ttl
+     */
+    private static CachedResponse toEntry(GatewayProperties.Route route, int status, HttpHeaders headers,
+                                          byte[] body, long now) {
+        Map<String, String> directives = directives(headers.getCacheControl());
+        long maxAge = directives.containsKey("no-cache")
+                ? 0
+                : seconds(directives, "s-maxage", seconds(directives, "max-age", route.getCacheTtl().toSeconds()));
+        boolean mustRevalidate = directives.containsKey("no-cache") || directives.containsKey("must-revalidate")
+                || directives.containsKey("proxy-revalidate");
+        long staleWindow = mustRevalidate
+                ? 0
+                : seconds(directives, "stale-while-revalidate", route.getCacheStaleWhileRevalidate().toSeconds());
+
+        long ageMs = 0;
+        String age = headers.getFirst("Age");
+        if (age != null) {
+            try {
+                ageMs = Math.max(0, Long.parseLong(age.trim())) * 1000;
+            } catch (NumberFormatException ignored) {
+                // An unreadable Age is treated as zero
+            }
+        }
+        long freshUntil = now + Math.max(0, maxAge * 1000 - ageMs);
+        return new CachedResponse(status, headers, body, now, ageMs, freshUntil, freshUntil + staleWindow * 1000);
+    }
+
+    /**
+     * Writes a cached response, answering 304 when the client's If-None-Match matches its ETag
+     */
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response,
+                       String cacheStatus) throws IOException {
+        boolean matches = cached.getStatus() == HttpServletResponse.SC_OK && cached.getETag() != null
+                && etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.getETag());
+        response.setStatus(matches ? HttpServletResponse.SC_NOT_MODIFIED : cached.getStatus());
+        cached.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader("Age", String.valueOf(cached.ageSeconds(System.currentTimeMillis())));
+        response.setHeader("X-Cache", cacheStatus);
+        if (matches) {
+            notModified.increment();
+            return;
+        }
+        response.setContentLength(cached.getBody().length);
+        response.getOutputStream().write(cached.getBody());
+        response.flushBuffer();
+    }
+
+    // Waits for a fetch started by another request; null when it failed or produced nothing storable
+    private static CachedResponse await(CompletableFuture<CachedResponse> fetch, GatewayProperties.Route route) {
+        try {
+            return fetch.get(route.getConnectTimeout().plus(route.getResponseTimeout()).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private CachedResponse put(String key, CachedResponse entry) {
+        index(keysByPath, pathOf(key), key);
+        for (String tag : entry.getTags()) {
+            index(keysByTag, routeOf(key) + " " + tag, key);
+        }
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private void remove(String key) {
+        CachedResponse removed = entries.asMap().remove(key);
+        unindex(key, removed);
+    }
+
+    // Forgets the key under its path and the tags of its entry once the entry is gone
+    private void unindex(String key, CachedResponse entry) {
+        unindex(keysByPath, pathOf(key), key);
+        if (entry != null) {
+            for (String tag : entry.getTags()) {
+                unindex(keysByTag, routeOf(key) + " " + tag, key);
+            }
+        }
+    }
+
+    private static void index(Map<String, Set<String>> index, String name, String key) {
+        index.compute(name, (ignored, keys) -> {
+            Set<String> result = keys != null ? keys : new HashSet<>();
+            result.add(key);
+            return result;
+        });
+    }
+
+    private static void unindex(Map<String, Set<String>> index, String name, String key) {
+        index.computeIfPresent(name, (ignored, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    // Adds every key indexed under name to target
+    private static void collect(Map<String, Set<String>> index, String name, Set<String> target) {
+        index.computeIfPresent(name, (ignored, keys) -> {
+            target.addAll(keys);
+            return keys;
+        });
+    }
+
+    // Splits Cache-Tag header values into individual tags
+    static Set<String> tags(Iterable<String> values) {
+        Set<String> tags = new HashSet<>();
+        if (values != null) {
+            for (String value : values) {
+                for (String tag : value.split(",")) {
+                    if (!tag.isBlank()) {
+                        tags.add(tag.trim());
+                    }
+                }
+            }
+        }
+        return tags;
+    }
+
+    // Cache keys start with "<route> "
+    private static String routeOf(String key) {
+        return key.substring(0, key.indexOf(' '));
+    }
+
+    // Cache keys start with "<route> <path>?" and paths never contain '?'
+    private static String pathOf(String key) {
+        return key.substring(0, key.indexOf('?'));
+    }
+
+    // Route, path, query and the values of the route's cache-vary headers
+    private static String cacheKey(UpstreamClient client, HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(client.getId()).append(' ').append(request.getRequestURI()).append('?');
+        if (request.getQueryString() != null) {
+            key.append(request.getQueryString());
+        }
+        for (String name : client.getRoute().getCacheVary()) {
+            key.append('\n').append(name.toLowerCase(Locale.ROOT)).append(':');
+            Enumeration<String> values = request.getHeaders(name);
+            while (values != null && values.hasMoreElements()) {
+                key.append(values.nextElement()).append(',');
+            }
+        }
+        return key.toString();
+    }
+
+    // Parses a Cache-Control value into lower-case directive names and their unquoted values
+    private static Map<String, String> directives(String cacheControl) {
+        if (cacheControl == null || cacheControl.isBlank()) {
+            return Map.of();
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String part : cacheControl.split(",")) {
+            String directive = part.trim();
+            if (directive.isEmpty()) {
+                continue;
+            }
+            int equals = directive.indexOf('=');
+            String name = (equals < 0 ? directive : directive.substring(0, equals)).trim().toLowerCase(Locale.ROOT);
+            String value = equals < 0 ? "" : directive.substring(equals + 1).trim().replace("\"", "");
+            directives.putIfAbsent(name, value);
+        }
+        return directives;
+    }
+
+    // Reads a delta-seconds directive; absent gives the fallback, an invalid value gives 0
+    private static long seconds(Map<String, String> directives, String name, long fallback) {
+        String value = directives.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Weak comparison (RFC 9110 section 8.8.3.2) against each tag of an If-None-Match header
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String tag = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Keeps an entry until its stale window ends, and entries with an ETag for a while longer
+     * so they can still be revalidated with If-None-Match instead of fetched again
+     */
+    private class RetentionExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            long retainUntil = value.getStaleUntil() + (value.getETag() != null ? validatorRetentionMs : 0);
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, retainUntil - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.ayaz.apigateway.proxy;
+
+import com.ayaz.apigateway.resilience.RequestDeadline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Streams requests and responses between the client and an upstream service
+ * Bodies are copied through a fixed-size buffer and never held in memory as a whole,
+ * so large uploads and downloads use constant memory per request
+ */
+@Component
+public class StreamingProxy {
+
+    // Size of the copy buffer used for each direction of a proxied request
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // Headers that describe a single connection and must not be forwarded (RFC 9110 section 7.6.1)
+    // Host and Content-Length are set by the HTTP client for the upstream connection
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade", "host", "content-length");
+
+    // Methods whose repetition has the same effect as a single request
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+
+    // The client's budget is replaced by the time remaining when the upstream request is made
+    private static final String REQUEST_TIMEOUT_HEADER = RequestDeadline.HEADER.toLowerCase(Locale.ROOT);
+
+    /**
+     * Forwards the servlet request to the target URI and writes the upstream response back
+     * Request and response bodies are passed through as raw bytes
+     */
+    public void forward(RestTemplate restTemplate, URI target,
+                        HttpServletRequest request, HttpServletResponse response) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        restTemplate.execute(target, method,
+                clientRequest -> writeRequest(request, clientRequest),
+                clientResponse -> {
+                    writeResponse(clientResponse, response);
+                    return null;
+                });
+    }
+
+    /**
+     * Copies the end-to-end headers and streams the body of the incoming request upstream
+     */
+    private void writeRequest(HttpServletRequest request, ClientHttpRequest clientRequest) throws IOException {
+        HttpHeaders headers = clientRequest.getHeaders();
+        copyRequestHeaders(request, headers);
+        long contentLength = request.getContentLengthLong();
+        if (contentLength >= 0) {
+            headers.setContentLength(contentLength);
+        }
+
+        if (!hasBody(request)) {
+            return;
+        }
+
+        // Streaming requests write straight to the connection instead of buffering first
+        if (clientRequest instanceof StreamingHttpOutputMessage streamingRequest) {
+            streamingRequest.setBody(out -> copy(request.getInputStream(), out));
+        } else {
+            copy(request.getInputStream(), clientRequest.getBody());
+        }
+    }
+
+    /**
+     * Copies every end-to-end request header and adds the X-Forwarded-* headers
+     */
+    static void copyRequestHeaders(HttpServletRequest request, HttpHeaders headers) {
+        Set<String> connectionHeaders = connectionTokens(request.getHeader(HttpHeaders.CONNECTION));
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if (HOP_BY_HOP_HEADERS.contains(lowerName) || connectionHeaders.contains(lowerName)
+                    || lowerName.equals(REQUEST_TIMEOUT_HEADER)) {
+                continue;
+            }
+            Enumeration<String> values = request.getHeaders(name);
+            while (values.hasMoreElements()) {
+                headers.add(name, values.nextElement());
+            }
+        }
+
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        headers.set("X-Forwarded-For", forwardedFor == null
+                ? request.getRemoteAddr()
+                : forwardedFor + ", " + request.getRemoteAddr());
+        if (request.getHeader("X-Forwarded-Host") == null && request.getHeader(HttpHeaders.HOST) != null) {
+            headers.set("X-Forwarded-Host", request.getHeader(HttpHeaders.HOST));
+        }
+        if (request.getHeader("X-Forwarded-Proto") == null) {
+            headers.set("X-Forwarded-Proto", request.getScheme());
+        }
+    }
+
+    // Header names listed in a Connection header are hop-by-hop for this connection only
+    private static Set<String> connectionTokens(String connection) {
+        if (connection == null || connection.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> tokens = new HashSet<>();
+        for (String token : connection.split(",")) {
+            tokens.add(token.trim().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the end-to-end headers of an upstream response, without hop-by-hop headers
+     */
+    static HttpHeaders endToEndHeaders(HttpHeaders upstreamHeaders) {
+        Set<String> connectionHeaders = connectionTokens(upstreamHeaders.getFirst(HttpHeaders.CONNECTION));
+        HttpHeaders headers = new HttpHeaders();
+        upstreamHeaders.forEach((name, values) -> {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if (!HOP_BY_HOP_HEADERS.contains(lowerName) && !connectionHeaders.contains(lowerName)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+
+    /**
+     * Copies the status and end-to-end headers and streams the upstream body to the client
+     */
+    void writeResponse(ClientHttpResponse clientResponse, HttpServletResponse response) throws IOException {
+        try (InputStream body = clientResponse.getBody()) {
+            writeResponse(clientResponse, body, response);
+        }
+    }
+
+    /**
+     * Same as writeResponse, reading the body from the given stream
+     * Used when part of the upstream body has already been consumed
+     */
+    void writeResponse(ClientHttpResponse clientResponse, InputStream body, HttpServletResponse response) throws IOException {
+        // The upstream status and end-to-end headers reach the client unchanged, errors included
+        response.setStatus(clientResponse.getStatusCode().value());
+
+        HttpHeaders headers = clientResponse.getHeaders();
+        endToEndHeaders(headers).forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (headers.getContentLength() >= 0) {
+            response.setContentLengthLong(headers.getContentLength());
+        }
+
+        copy(body, response.getOutputStream());
+        response.flushBuffer();
+    }
+
+    /**
+     * Returns true when the request may be sent upstream again after a connection failure:
+     * an idempotent method (RFC 9110 section 9.2.2) and no body that was already streamed
+     */
+    public boolean isRetryable(HttpServletRequest request) {
+        return IDEMPOTENT_METHODS.contains(request.getMethod()) && !hasBody(request);
+    }
+
+    // A request carries a body when it declares a length or uses chunked encoding
+    private boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    // Copies all bytes from in to out through a single fixed-size buffer
+    static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,120 @@
+package com.ayaz.apigateway.proxy;
+
+import com.ayaz.apigateway.client.PassThroughErrorHandler;
+import com.ayaz.apigateway.client.UpstreamClient;
+import com.ayaz.apigateway.loadbalancer.LoadBalancer;
+import com.ayaz.apigateway.loadbalancer.NoAvailableInstanceException;
+import com.ayaz.apigateway.loadbalancer.UpstreamInstance;
+import com.ayaz.apigateway.resilience.Bulkhead;
+import com.ayaz.apigateway.resilience.CircuitBreaker;
+import com.ayaz.apigateway.resilience.DeadlineExceededException;
+import com.ayaz.apigateway.resilience.RequestDeadline;
+import com.ayaz.apigateway.resilience.TransportFailures;
+import com.ayaz.apigateway.resilience.UpstreamUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.URI;
+import java.util.function.Function;
+
+/**
+ * Runs a call against one instance of a route's upstream service
+ *
+ * The call must be admitted by the route's circuit breaker and get a bulkhead slot within
+ * the request deadline; otherwise it fails fast without touching the upstream. The instance
+ * is picked through the LoadBalancer and tracked as outstanding while the call runs, and
+ * the outcome is reported back to the circuit breaker. Retryable calls whose connection
+ * failed before any response arrived are repeated, on a freshly chosen instance, up to the
+ * route's retries setting.
+ */
+@Component
+public class UpstreamCaller {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamCaller.class);
+
+    private final LoadBalancer loadBalancer;
+
+    public UpstreamCaller(LoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    /**
+     * Resolves pathAndQuery against a chosen instance and passes the full URI to the call
+     * Pass retryable=true only for idempotent requests whose body can be sent again.
+     * Throws UpstreamUnavailableException when the circuit is open or the bulkhead is full,
+     * DeadlineExceededException when the request budget is used up, and
+     * NoAvailableInstanceException when the service has no registered instances
+     */
+    public <T> T call(UpstreamClient client, String pathAndQuery, boolean retryable, Function<URI, T> call) {
+        int attempts = retryable ? 1 + Math.max(0, client.getRoute().getRetries()) : 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(client, pathAndQuery, call);
+            } catch (ResourceAccessException e) {
+                Long remaining = RequestDeadline.remainingMillis();
+                if (attempt >= attempts || !TransportFailures.isConnectFailure(e) || (remaining != null && remaining <= 0)) {
+                    throw e;
+                }
+                log.debug("Retrying {} on {} after connection failure: {}", pathAndQuery, client.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // One attempt: admission, instance choice and the call itself
+    private <T> T attempt(UpstreamClient client, String pathAndQuery, Function<URI, T> call) {
+        Long remaining = RequestDeadline.remainingMillis();
+        if (remaining != null && remaining <= 0) {
+            throw new DeadlineExceededException(client.getId());
+        }
+
+        CircuitBreaker circuitBreaker = client.getCircuitBreaker();
+        CircuitBreaker.Permit permit = circuitBreaker.acquire();
+        if (permit == null) {
+            throw new UpstreamUnavailableException("Circuit open for " + client.getId(),
+                    circuitBreaker.getRetryAfterMillis());
+        }
+        Bulkhead bulkhead = client.getBulkhead();
+        if (!bulkhead.tryAcquire(remaining)) {
+            circuitBreaker.release(permit);
+            throw new UpstreamUnavailableException("Too many concurrent requests to " + client.getId(), 1000);
+        }
+
+        try {
+            UpstreamInstance instance;
+            try {
+                instance = loadBalancer.choose(client.getRoute());
+            } catch (NoAvailableInstanceException e) {
+                circuitBreaker.release(permit);
+                throw e;
+            }
+
+            URI target = URI.create(instance.getBaseUrl() + pathAndQuery);
+            instance.acquire();
+            PassThroughErrorHandler.takeLastStatus();
+            try {
+                T result = call.apply(target);
+                // Upstream statuses pass through unchanged, but 5xx answers still count as failures
+                if (PassThroughErrorHandler.takeLastStatus() >= 500) {
+                    circuitBreaker.onFailure(permit);
+                } else {
+                    circuitBreaker.onSuccess(permit);
+                }
+                return result;
+            } catch (RuntimeException e) {
+                int status = PassThroughErrorHandler.takeLastStatus();
+                if (TransportFailures.isUpstreamFailure(e) || status >= 500) {
+                    circuitBreaker.onFailure(permit);
+                } else {
+                    circuitBreaker.onSuccess(permit);
+                }
+                throw e;
+            } finally {
+                instance.release();
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+}
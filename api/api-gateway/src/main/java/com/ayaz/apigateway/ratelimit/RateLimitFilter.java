@@ -0,0 +1,66 @@
+package com.ayaz.apigateway.ratelimit;
+
+import com.ayaz.apigateway.client.UpstreamClient;
+import com.ayaz.apigateway.config.GatewayProperties;
+import com.ayaz.apigateway.route.RouteLocator;
+import com.ayaz.apigateway.security.AuthenticationFilter;
+import com.ayaz.apigateway.security.VerifiedToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of each client on routes with rate-limit-per-second set
+ * Authenticated callers are limited per user, everyone else per client IP. Requests over
+ * the limit are answered with 429 and a Retry-After header without reaching the upstream.
+ * Runs after the AuthenticationFilter so the verified user is known.
+ */
+@Component
+@Order(AuthenticationFilter.ORDER + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RouteLocator routeLocator;
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RouteLocator routeLocator, RateLimiter rateLimiter) {
+        this.routeLocator = routeLocator;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        UpstreamClient client = routeLocator.locate(request.getRequestURI());
+        if (client != null && client.getRoute().getRateLimitPerSecond() > 0) {
+            GatewayProperties.Route route = client.getRoute();
+            long wait = rateLimiter.tryAcquire(route, clientKey(request));
+            if (wait > 0) {
+                long retryAfter = Math.max(1, (TimeUnit.NANOSECONDS.toMillis(wait) + 999) / 1000);
+                response.setStatus(429);
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\":\"Too many requests, please retry later\"}");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // The verified user when the route is authenticated, otherwise the connecting address.
+    // X-Forwarded-For is not trusted here because the gateway is the edge and clients can set it
+    private static String clientKey(HttpServletRequest request) {
+        Object token = request.getAttribute(AuthenticationFilter.TOKEN_ATTRIBUTE);
+        if (token instanceof VerifiedToken verifiedToken) {
+            return "user:" + verifiedToken.getUserId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
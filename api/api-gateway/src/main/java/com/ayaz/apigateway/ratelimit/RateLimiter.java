@@ -0,0 +1,83 @@
+package com.ayaz.apigateway.ratelimit;
+
+import com.ayaz.apigateway.config.GatewayProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds one token bucket per route and client
+ *
+ * Buckets live in a bounded map and expire once they have been idle long enough to refill
+ * completely, so dropping them never admits more than the limit allows. Looking up an
+ * existing bucket takes no lock, and the counters are striped, so the limiter adds no
+ * shared point of contention to the request path.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(@Value("${gateway.rate-limit.max-buckets:100000}") long maxBuckets) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfter(new RefillExpiry())
+                .build();
+    }
+
+    /**
+     * Takes a token from the client's bucket for the route
+     * Returns 0 when the request is admitted, otherwise the nanoseconds until it may retry
+     */
+    public long tryAcquire(GatewayProperties.Route route, String clientKey) {
+        TokenBucket bucket = buckets.get(route.getId() + '|' + clientKey,
+                key -> new TokenBucket(route.getRateLimitPerSecond(), route.getRateLimitBurst()));
+        long wait = bucket.tryAcquire(System.nanoTime());
+        if (wait == 0) {
+            admitted.increment();
+        } else {
+            rejected.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Returns the number of tracked buckets and admitted and rejected request counts
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buckets", buckets.estimatedSize());
+        stats.put("admitted", admitted.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    /**
+     * Expires a bucket once it has gone unused for as long as it takes to refill
+     */
+    private static class RefillExpiry implements Expiry<String, TokenBucket> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenBucket bucket, long currentTime) {
+            return bucket.getRefillNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.getRefillNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.getRefillNanos();
+        }
+    }
+}
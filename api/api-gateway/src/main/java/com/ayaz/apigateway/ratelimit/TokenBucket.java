@@ -0,0 +1,54 @@
+package com.ayaz.apigateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket that keeps its whole state in a single AtomicLong
+ *
+ * Instead of a token count plus a last-refill time, the bucket stores the moment at which it
+ * would be full again (the "virtual scheduling" form of GCRA). A request is admitted while
+ * that moment lies at most capacity - 1 refill intervals ahead of now, and each admitted
+ * request pushes it one interval further. Taking a token is one read and one compare-and-set;
+ * there is no refill timer and no lock.
+ */
+public class TokenBucket {
+
+    // Nanoseconds needed to refill one token
+    private final long interval;
+    // How far the full-again moment may run ahead of now and still admit a request
+    private final long tolerance;
+    // System.nanoTime() at which the bucket is full again; MIN_VALUE means full
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.tolerance = (Math.max(1, capacity) - 1) * interval;
+    }
+
+    /**
+     * Takes one token if available
+     * Returns 0 when the request is admitted, otherwise the nanoseconds until a token is free
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long wait = start - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the nanoseconds an empty bucket needs to fill up completely
+     * After that long without requests the bucket is indistinguishable from a new one
+     */
+    public long getRefillNanos() {
+        return tolerance + interval;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ayaz.apigateway.resilience;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of requests in flight to one upstream route
+ * A slow upstream can then only hold its own slots, never the request threads every other
+ * route needs; requests beyond the cap wait at most max-wait and are then refused
+ */
+public class Bulkhead {
+
+    private final int maxConcurrent;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(int maxConcurrent, Duration maxWait) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMs = maxWait.toMillis();
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Takes a slot, waiting no longer than max-wait or the remaining request budget
+     * Returns false when no slot became free in time
+     */
+    public boolean tryAcquire(Long remainingMillis) {
+        long wait = remainingMillis == null ? maxWaitMs : Math.min(maxWaitMs, remainingMillis);
+        boolean acquired;
+        if (wait <= 0) {
+            acquired = permits.tryAcquire();
+        } else {
+            try {
+                acquired = permits.tryAcquire(wait, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+        }
+        if (!acquired) {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    /**
+     * Returns a slot taken by tryAcquire
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Returns the slot limit, slots in use and the number of refused requests
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("active", maxConcurrent - permits.availablePermits());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+}
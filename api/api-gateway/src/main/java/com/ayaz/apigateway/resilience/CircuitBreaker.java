@@ -0,0 +1,178 @@
+package com.ayaz.apigateway.resilience;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker for one upstream route
+ *
+ * CLOSED: calls pass and their outcomes fill a window of the last window-size calls. Once
+ * the window holds at least minimum-calls outcomes and the failure rate reaches the threshold
+ * the breaker opens. OPEN: calls are refused at once for open-duration. HALF_OPEN: up to
+ * half-open-calls probes are let through; if all succeed the breaker closes, and the first
+ * failing probe opens it again.
+ *
+ * While closed, letting a call through is a single volatile read; only recording an outcome
+ * takes the breaker's lock.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Permission to make one call, returned to the breaker with the call's outcome
+     */
+    public enum Permit { NORMAL, PROBE }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+
+    // Ring buffer of the latest outcomes while closed (true = failed)
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    // Time the breaker last opened (epoch millis)
+    private volatile long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold,
+                          Duration openDuration, int halfOpenCalls) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDuration.toMillis();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.outcomes = new boolean[this.windowSize];
+    }
+
+    /**
+     * Asks to make a call
+     * Returns the permit to report the outcome with, or null when the call must be refused
+     */
+    public Permit acquire() {
+        if (state == State.CLOSED) {
+            return Permit.NORMAL;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return Permit.NORMAL;
+            }
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openDurationMs) {
+                    return null;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probesSucceeded = 0;
+            }
+            if (probesInFlight >= halfOpenCalls) {
+                return null;
+            }
+            probesInFlight++;
+            return Permit.PROBE;
+        }
+    }
+
+    /**
+     * Records a call that reached the upstream and got a usable answer
+     */
+    public synchronized void onSuccess(Permit permit) {
+        if (permit == Permit.PROBE) {
+            if (state == State.HALF_OPEN) {
+                probesInFlight--;
+                if (++probesSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Records a call that failed because of the upstream (connection error, timeout, 5xx)
+     */
+    public synchronized void onFailure(Permit permit) {
+        if (permit == Permit.PROBE) {
+            if (state == State.HALF_OPEN) {
+                transition(State.OPEN);
+            }
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit whose call never reached the upstream
+     */
+    public synchronized void release(Permit permit) {
+        if (permit == Permit.PROBE && state == State.HALF_OPEN) {
+            probesInFlight--;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the milliseconds until an open breaker lets a probe through
+     */
+    public long getRetryAfterMillis() {
+        return Math.max(0, openedAt + openDurationMs - System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the state and the failure count of the current window
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("calls", recorded);
+        stats.put("failures", failures);
+        if (state == State.OPEN) {
+            stats.put("retryAfterMs", getRetryAfterMillis());
+        }
+        return stats;
+    }
+
+    // Adds an outcome to the window, dropping the oldest once it is full
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    // Moves to the new state with an empty window
+    private void transition(State newState) {
+        if (newState == State.OPEN) {
+            openedAt = System.currentTimeMillis();
+        }
+        state = newState;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+    }
+}
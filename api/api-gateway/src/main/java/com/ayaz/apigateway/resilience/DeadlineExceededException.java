@@ -0,0 +1,11 @@
+package com.ayaz.apigateway.resilience;
+
+/**
+ * Thrown when a request's deadline has passed before its upstream call could start
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String routeId) {
+        super("Request deadline exceeded before calling " + routeId);
+    }
+}
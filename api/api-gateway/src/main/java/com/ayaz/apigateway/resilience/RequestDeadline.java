@@ -0,0 +1,64 @@
+package com.ayaz.apigateway.resilience;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+
+/**
+ * Time budget of the request the current thread is proxying
+ *
+ * The gateway fixes a deadline when a request arrives: the route's response-timeout, or less
+ * when the client sends X-Request-Timeout (milliseconds). Upstream calls made on the thread
+ * wait at most the remaining time and pass it on as X-Request-Timeout, so every hop works
+ * against the same budget instead of restarting its own timeout.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    // Deadline (epoch millis) of the request being handled on this thread
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Returns the deadline for a request: now plus the smaller of the route timeout and the
+     * client's X-Request-Timeout; an unreadable header is ignored
+     */
+    public static long resolve(HttpServletRequest request, Duration routeTimeout) {
+        long budget = routeTimeout.toMillis();
+        String requested = request.getHeader(HEADER);
+        if (requested != null) {
+            try {
+                budget = Math.min(budget, Math.max(0, Long.parseLong(requested.trim())));
+            } catch (NumberFormatException ignored) {
+                // Fall back to the route timeout
+            }
+        }
+        return System.currentTimeMillis() + budget;
+    }
+
+    /**
+     * Sets the deadline (epoch millis) for upstream calls made on this thread
+     */
+    public static void set(long deadline) {
+        DEADLINE.set(deadline);
+    }
+
+    /**
+     * Removes the deadline once the request is done
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * Returns the milliseconds left before the deadline, or null when no deadline is set
+     * (background work such as cache revalidation)
+     */
+    public static Long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? null : deadline - System.currentTimeMillis();
+    }
+}
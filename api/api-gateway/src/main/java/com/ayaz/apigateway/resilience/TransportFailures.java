@@ -0,0 +1,65 @@
+package com.ayaz.apigateway.resilience;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.NoHttpResponseException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.util.DisconnectedClientHelper;
+
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+
+/**
+ * Classifies the I/O errors of an upstream call
+ * Only these transport failures make the gateway answer with its own error; every response
+ * the upstream did send is passed to the client as it is
+ */
+public final class TransportFailures {
+
+    private TransportFailures() {
+    }
+
+    /**
+     * Returns true when the client went away while the response was being streamed
+     */
+    public static boolean isClientDisconnect(Throwable e) {
+        return DisconnectedClientHelper.isClientDisconnectedException(NestedExceptionUtils.getMostSpecificCause(e));
+    }
+
+    /**
+     * Returns true when the upstream could not be reached or stopped responding
+     */
+    public static boolean isUpstreamFailure(Throwable e) {
+        return e instanceof ResourceAccessException && !isClientDisconnect(e);
+    }
+
+    /**
+     * Returns true when the call ran out of time: connect, pool lease or response timeout
+     */
+    public static boolean isTimeout(Throwable e) {
+        return hasCause(e, InterruptedIOException.class);
+    }
+
+    /**
+     * Returns true when the call failed before any response arrived: the connection was refused
+     * or timed out, or a reused keep-alive connection was closed by the upstream. An idempotent
+     * request can then safely be sent again, and nothing has been written to the client yet
+     */
+    public static boolean isConnectFailure(Throwable e) {
+        return hasCause(e, ConnectException.class) || hasCause(e, ConnectTimeoutException.class)
+                || hasCause(e, NoRouteToHostException.class) || hasCause(e, UnknownHostException.class)
+                || hasCause(e, NoHttpResponseException.class);
+    }
+
+    // Walks the cause chain looking for the given exception type
+    private static boolean hasCause(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
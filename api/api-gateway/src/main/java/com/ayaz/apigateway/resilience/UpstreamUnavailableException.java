@@ -0,0 +1,27 @@
+package com.ayaz.apigateway.resilience;
+
+/**
+ * Thrown when a call is refused without contacting the upstream
+ * Either the route's circuit breaker is open or its bulkhead has no free slot
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    // Suggested wait before retrying, in milliseconds
+    private final long retryAfterMillis;
+
+    public UpstreamUnavailableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Returns the wait before retrying in whole seconds, at least one, for a Retry-After header
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfterMillis + 999) / 1000);
+    }
+}
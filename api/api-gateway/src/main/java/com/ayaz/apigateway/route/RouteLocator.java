@@ -0,0 +1,45 @@
+package com.ayaz.apigateway.route;
+
+import com.ayaz.apigateway.client.UpstreamClient;
+import com.ayaz.apigateway.client.UpstreamClients;
+import com.ayaz.apigateway.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves incoming request paths to upstream routes
+ * The route table from gateway.routes is compiled into a RouteTrie once at startup
+ */
+@Component
+public class RouteLocator {
+
+    private static final String PATH_PREDICATE = "Path=";
+
+    private final RouteTrie<UpstreamClient> routes = new RouteTrie<>();
+
+    public RouteLocator(GatewayProperties properties, UpstreamClients upstreamClients) {
+        for (GatewayProperties.Route route : properties.getRoutes()) {
+            UpstreamClient client = upstreamClients.get(route.getId());
+            for (String predicate : route.getPredicates()) {
+                addPredicate(route.getId(), predicate.trim(), client);
+            }
+        }
+    }
+
+    /**
+     * Finds the upstream client for the given request path
+     * Returns null when no route matches
+     */
+    public UpstreamClient locate(String path) {
+        return routes.match(path);
+    }
+
+    // Registers every path of a Path= predicate; other predicate types are rejected at startup
+    private void addPredicate(String routeId, String predicate, UpstreamClient client) {
+        if (!predicate.startsWith(PATH_PREDICATE)) {
+            throw new IllegalStateException("Unsupported predicate '" + predicate + "' on route " + routeId);
+        }
+        for (String pattern : predicate.substring(PATH_PREDICATE.length()).split(",")) {
+            routes.add(pattern.trim(), client);
+        }
+    }
+}
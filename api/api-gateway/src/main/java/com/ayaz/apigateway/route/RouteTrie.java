@@ -0,0 +1,119 @@
+package com.ayaz.apigateway.route;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prefix trie of path patterns, one node per path segment
+ * Lookup cost depends only on the number of segments in the request path,
+ * not on the number of configured routes
+ *
+ * Supported pattern segments:
+ *  - literal segments (/api/users)
+ *  - "*" matching exactly one segment (/api/users/*)
+ *  - a trailing "**" matching the rest of the path, including nothing (/api/files/**)
+ */
+public class RouteTrie<T> {
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Adds a pattern to the trie
+     * Throws IllegalStateException when the same pattern is registered twice
+     */
+    public void add(String pattern, T value) {
+        String[] segments = split(pattern);
+        Node<T> node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' is only supported at the end of a pattern: " + pattern);
+                }
+                if (node.catchAll != null) {
+                    throw new IllegalStateException("Duplicate route pattern: " + pattern);
+                }
+                node.catchAll = value;
+                return;
+            }
+            if ("*".equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node<>();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node<>());
+            }
+        }
+        if (node.exact != null) {
+            throw new IllegalStateException("Duplicate route pattern: " + pattern);
+        }
+        node.exact = value;
+    }
+
+    /**
+     * Finds the most specific value matching the path
+     * Literal segments win over "*", which wins over a trailing "**"
+     * Returns null when nothing matches
+     */
+    public T match(String path) {
+        return match(root, split(path), 0);
+    }
+
+    // Walks the trie depth first, preferring the most specific branch at each segment
+    private T match(Node<T> node, String[] segments, int index) {
+        if (index == segments.length) {
+            return node.exact != null ? node.exact : node.catchAll;
+        }
+
+        Node<T> literal = node.children.get(segments[index]);
+        if (literal != null) {
+            T result = match(literal, segments, index + 1);
+            if (result != null) {
+                return result;
+            }
+        }
+        if (node.wildcard != null) {
+            T result = match(node.wildcard, segments, index + 1);
+            if (result != null) {
+                return result;
+            }
+        }
+        return node.catchAll;
+    }
+
+    // Splits a path into its non-empty segments
+    private static String[] split(String path) {
+        int count = 0;
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            if (path.charAt(i) != '/' && (i == 0 || path.charAt(i - 1) == '/')) {
+                count++;
+            }
+        }
+
+        String[] segments = new String[count];
+        int segment = 0;
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean separator = i == length || path.charAt(i) == '/';
+            if (separator) {
+                if (start >= 0) {
+                    segments[segment++] = path.substring(start, i);
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        return segments;
+    }
+
+    // A trie node - children keyed by literal segment plus optional wildcard branches
+    private static class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private Node<T> wildcard;
+        private T exact;
+        private T catchAll;
+    }
+}
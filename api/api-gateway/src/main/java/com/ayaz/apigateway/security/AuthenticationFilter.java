@@ -0,0 +1,134 @@
+package com.ayaz.apigateway.security;
+
+import com.ayaz.apigateway.client.UpstreamClient;
+import com.ayaz.apigateway.route.RouteLocator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Authenticates requests for routes configured with filters[n]=AuthenticationFilter
+ * Access tokens are verified locally, checked against the in-memory revocation index,
+ * and the caller is forwarded upstream as X-User-ID.
+ * Identity headers sent by clients are always removed so they cannot be spoofed.
+ */
+@Component
+@Order(AuthenticationFilter.ORDER)
+public class AuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String NAME = "AuthenticationFilter";
+    // Filter order - later gateway filters such as rate limiting rely on the verified identity
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+    public static final String USER_ID_HEADER = "X-User-ID";
+    public static final String USERNAME_HEADER = "X-Username";
+    // Request attribute holding the VerifiedToken of an authenticated request
+    public static final String TOKEN_ATTRIBUTE = AuthenticationFilter.class.getName() + ".token";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final RouteLocator routeLocator;
+    private final JwtVerifier jwtVerifier;
+    private final RevocationIndex revocationIndex;
+
+    public AuthenticationFilter(RouteLocator routeLocator, JwtVerifier jwtVerifier, RevocationIndex revocationIndex) {
+        this.routeLocator = routeLocator;
+        this.jwtVerifier = jwtVerifier;
+        this.revocationIndex = revocationIndex;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Map<String, String> identity = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        identity.put(USER_ID_HEADER, null);
+        identity.put(USERNAME_HEADER, null);
+
+        UpstreamClient client = routeLocator.locate(request.getRequestURI());
+        if (client != null && client.getRoute().getFilters().contains(NAME)) {
+            VerifiedToken token = authenticate(request);
+            if (token == null || revocationIndex.isRevoked(token)) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\":\"Missing or invalid access token\"}");
+                return;
+            }
+            identity.put(USER_ID_HEADER, token.getUserId());
+            identity.put(USERNAME_HEADER, token.getUsername());
+            request.setAttribute(TOKEN_ATTRIBUTE, token);
+        }
+
+        filterChain.doFilter(new IdentityRequest(request, identity), response);
+    }
+
+    // Reads the bearer token from the Authorization header and verifies it
+    private VerifiedToken authenticate(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = authorization.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : jwtVerifier.verify(token);
+    }
+
+    /**
+     * Replaces the identity headers of the incoming request
+     * A null value removes the header entirely
+     */
+    private static class IdentityRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, String> overrides;
+
+        IdentityRequest(HttpServletRequest request, Map<String, String> overrides) {
+            super(request);
+            this.overrides = overrides;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return overrides.containsKey(name) ? overrides.get(name) : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!overrides.containsKey(name)) {
+                return super.getHeaders(name);
+            }
+            String value = overrides.get(name);
+            return value == null ? Collections.emptyEnumeration() : Collections.enumeration(List.of(value));
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = new ArrayList<>();
+            Enumeration<String> original = super.getHeaderNames();
+            while (original.hasMoreElements()) {
+                String name = original.nextElement();
+                if (!overrides.containsKey(name)) {
+                    names.add(name);
+                }
+            }
+            overrides.forEach((name, value) -> {
+                if (value != null) {
+                    names.add(name);
+                }
+            });
+            return Collections.enumeration(names);
+        }
+    }
+}
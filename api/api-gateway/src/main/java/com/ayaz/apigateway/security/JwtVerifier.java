@@ -0,0 +1,103 @@
+package com.ayaz.apigateway.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies access tokens issued by the auth-service without calling it
+ * The HMAC key is parsed once at startup and recently verified tokens are cached,
+ * so repeat requests with the same token cost a single map lookup
+ */
+@Component
+public class JwtVerifier {
+
+    // {"alg":"HS256","typ":"JWT"} - any other header (including alg=none) is rejected
+    private static final String HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String TYPE_ACCESS = "access";
+
+    private final ObjectMapper objectMapper;
+    private final Mac prototype;
+    private final int cacheSize;
+    // Token string -> verified identity; entries are dropped once their exp has passed
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    public JwtVerifier(ObjectMapper objectMapper,
+                       @Value("${jwt.secret.access}") String secret,
+                       @Value("${jwt.verified-cache-size:10000}") int cacheSize) throws GeneralSecurityException {
+        this.objectMapper = objectMapper;
+        this.prototype = Mac.getInstance(HMAC_ALGORITHM);
+        this.prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Verifies the token's header, signature, type and expiry
+     * Returns the identity it carries, or null if the token is not valid
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis() / 1000;
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verified.remove(token);
+            return null;
+        }
+
+        VerifiedToken result = parse(token, now);
+        if (result != null) {
+            // The cache is only a shortcut, so it is simply emptied when it fills up
+            if (verified.size() >= cacheSize) {
+                verified.clear();
+            }
+            verified.put(token, result);
+        }
+        return result;
+    }
+
+    // Full verification of a token that is not in the cache
+    private VerifiedToken parse(String token, long now) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot || !HEADER.equals(token.substring(0, firstDot))) {
+            return null;
+        }
+
+        try {
+            // Mac instances are not thread-safe, so each verification works on a copy of the keyed prototype
+            Mac mac = (Mac) prototype.clone();
+            byte[] expected = mac.doFinal(token.substring(0, lastDot).getBytes(StandardCharsets.US_ASCII));
+            byte[] actual = Base64.getUrlDecoder().decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(firstDot + 1, lastDot)));
+            String userId = claims.path("sub").asText(null);
+            long expiresAt = claims.path("exp").asLong(0);
+            if (userId == null || !TYPE_ACCESS.equals(claims.path("type").asText()) || expiresAt <= now) {
+                return null;
+            }
+            // Millisecond issue time, so a revocation in the same second as the issue is still decided exactly
+            long issuedAtMillis = claims.has("iat_ms") ? claims.path("iat_ms").asLong(0) : claims.path("iat").asLong(0) * 1000;
+            return new VerifiedToken(userId, claims.path("username").asText(null), claims.path("jti").asText(null),
+                    claims.path("fam").asText(null), issuedAtMillis, expiresAt);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
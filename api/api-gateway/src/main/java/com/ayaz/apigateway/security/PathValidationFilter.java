@@ -0,0 +1,66 @@
+package com.ayaz.apigateway.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rejects request paths that an upstream service could resolve to a different path
+ *
+ * Authentication, rate limiting, cache keys and route lookup all work on the raw request
+ * URI, which is also what gets forwarded. A path such as /api/auth/../../internal/... would
+ * match a public route here and only be normalized upstream, reaching endpoints the gateway
+ * never routes. Any dot segment (".", ".."), in plain, percent-encoded or ";param" form, and
+ * any encoded slash or backslash inside a segment is therefore answered with 400 before
+ * any other gateway filter runs, so the raw URI every later step sees is already canonical.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PathValidationFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!isCanonical(request.getRequestURI())) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Invalid request path\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Returns true when no segment of the raw path is a dot segment or hides a path separator
+     */
+    static boolean isCanonical(String rawPath) {
+        if (rawPath == null || !rawPath.startsWith("/")) {
+            return false;
+        }
+        for (String segment : rawPath.substring(1).split("/", -1)) {
+            // Servlet containers drop ";param" suffixes when resolving segments ("..;x" is "..")
+            int params = segment.indexOf(';');
+            String name = params >= 0 ? segment.substring(0, params) : segment;
+            String decoded;
+            try {
+                decoded = UriUtils.decode(name, StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (decoded.equals(".") || decoded.equals("..")
+                    || decoded.indexOf('/') >= 0 || decoded.indexOf('\\') >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ayaz.apigateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory copy of the auth-service revocation list, consulted on every authenticated request
+ *
+ * Revoked token ids sit behind a Bloom filter, so the common case (token not revoked) is
+ * answered from a few bit reads; only filter hits fall through to the exact map. Ended token
+ * families (login sessions) and users whose tokens were all revoked are kept in exact maps
+ * keyed by family and user id. Entries are
+ * dropped once the tokens they cover have expired, and the filter is rebuilt at that point.
+ */
+@Component
+public class RevocationIndex {
+
+    public static final String TYPE_TOKEN = "token";
+    public static final String TYPE_FAMILY = "family";
+    public static final String TYPE_USER = "user";
+
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    // jti -> expiry (epoch millis) of the revocation
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // family id -> expiry (epoch millis) of the revocation; an ended family issues no more tokens
+    private final Map<String, Long> revokedFamilies = new ConcurrentHashMap<>();
+    // user id -> revocation applying to tokens issued before revokedAt
+    private final Map<String, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter tokenFilter;
+
+    public RevocationIndex(
+            @Value("${gateway.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${gateway.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Returns true when the token itself, its token family or all of its user's earlier tokens were revoked
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (!revokedUsers.isEmpty()) {
+            UserRevocation user = revokedUsers.get(token.getUserId());
+            // Millisecond precision, and a token issued in the very millisecond of the revocation is revoked too
+            if (user != null && token.getIssuedAtMillis() <= user.revokedAt) {
+                return true;
+            }
+        }
+        String familyId = token.getFamilyId();
+        if (familyId != null && !revokedFamilies.isEmpty() && revokedFamilies.containsKey(familyId)) {
+            return true;
+        }
+        String tokenId = token.getTokenId();
+        return tokenId != null && tokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Adds one revocation from the auth-service feed
+     * Applying the same revocation twice has no further effect
+     */
+    public void add(String type, String subject, long revokedAt, long expiresAt) {
+        if (TYPE_TOKEN.equals(type)) {
+            // Exact entry first, so a filter hit always finds it
+            revokedTokens.put(subject, expiresAt);
+            tokenFilter.add(subject);
+        } else if (TYPE_FAMILY.equals(type)) {
+            revokedFamilies.put(subject, expiresAt);
+        } else if (TYPE_USER.equals(type)) {
+            revokedUsers.merge(subject, new UserRevocation(revokedAt, expiresAt),
+                    (current, update) -> update.revokedAt > current.revokedAt ? update : current);
+        }
+    }
+
+    /**
+     * Drops revocations whose tokens have expired and rebuilds the Bloom filter from the rest
+     * Bloom filters cannot remove keys, so rebuilding is what keeps the false-positive rate down
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedFamilies.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(user -> user.expiresAt <= now);
+        if (removed || revokedTokens.size() > expectedEntries) {
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revokedTokens.size() * 2), falsePositiveRate);
+            revokedTokens.keySet().forEach(rebuilt::add);
+            tokenFilter = rebuilt;
+            // Tokens revoked while rebuilding may have gone into the old filter only
+            revokedTokens.keySet().forEach(rebuilt::add);
+        }
+    }
+
+    /**
+     * Returns the number of revoked tokens, families and users and the filter size
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("revokedTokens", revokedTokens.size());
+        stats.put("revokedFamilies", revokedFamilies.size());
+        stats.put("revokedUsers", revokedUsers.size());
+        stats.put("filterBits", tokenFilter.bitCount);
+        stats.put("filterHashes", tokenFilter.hashCount);
+        return stats;
+    }
+
+    /**
+     * Revocation of every token a user was issued before revokedAt (epoch millis)
+     */
+    private static class UserRevocation {
+        private final long revokedAt;
+        private final long expiresAt;
+
+        UserRevocation(long revokedAt, long expiresAt) {
+            this.revokedAt = revokedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter over strings
+     * Bits live in an AtomicLongArray so adds and lookups can run concurrently
+     */
+    private static class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            // Optimal sizing: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+            long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+        }
+
+        void add(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Maps a combined hash onto a bit position
+        private long index(int combined) {
+            return (combined & Integer.MAX_VALUE) % bitCount;
+        }
+
+        // 64-bit FNV-1a over the UTF-8 bytes, split into two 32-bit hashes (Kirsch-Mitzenmacher)
+        private static long hash64(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
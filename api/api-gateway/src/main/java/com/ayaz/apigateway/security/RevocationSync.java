@@ -0,0 +1,126 @@
+package com.ayaz.apigateway.security;
+
+import com.ayaz.apigateway.client.UpstreamClient;
+import com.ayaz.apigateway.client.UpstreamClients;
+import com.ayaz.apigateway.loadbalancer.LoadBalancer;
+import com.ayaz.apigateway.loadbalancer.UpstreamInstance;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the RevocationIndex in step with the auth-service
+ *
+ * The full revocation list is loaded once the gateway is ready, then only revocations made
+ * since the previous poll are fetched every sync-interval. Requests never wait on this:
+ * if the auth-service is unreachable the last known index stays in use.
+ */
+@Component
+public class RevocationSync {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationSync.class);
+
+    private static final String FEED_PATH = "/internal/api/auth/revocations";
+    private static final int PAGE_SIZE = 10_000;
+
+    private final UpstreamClients upstreamClients;
+    private final LoadBalancer loadBalancer;
+    private final RevocationIndex revocationIndex;
+    private final String routeId;
+    private final Duration interval;
+    private final Duration overlap;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revocation-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Auth-service time of the last successful poll (epoch millis); 0 until the first full load
+    private volatile long lastSync;
+
+    public RevocationSync(UpstreamClients upstreamClients, LoadBalancer loadBalancer, RevocationIndex revocationIndex,
+                          @Value("${gateway.revocation.route:auth-service}") String routeId,
+                          @Value("${gateway.revocation.sync-interval:5s}") Duration interval,
+                          @Value("${gateway.revocation.overlap:10s}") Duration overlap) {
+        this.upstreamClients = upstreamClients;
+        this.loadBalancer = loadBalancer;
+        this.revocationIndex = revocationIndex;
+        this.routeId = routeId;
+        this.interval = interval;
+        this.overlap = overlap;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sync, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the time of the last successful sync (epoch millis, 0 if none yet)
+     */
+    public long getLastSync() {
+        return lastSync;
+    }
+
+    // Fetches revocations since the last poll, page by page, then purges expired entries
+    private void sync() {
+        try {
+            UpstreamClient client = upstreamClients.get(routeId);
+            // Re-read a short window so revocations committed during the last poll are not missed
+            long since = lastSync == 0 ? 0 : lastSync - overlap.toMillis();
+            Long serverTime = null;
+            while (true) {
+                JsonNode page = fetch(client, since);
+                if (serverTime == null) {
+                    serverTime = page.path("serverTime").asLong();
+                }
+                JsonNode revocations = page.path("revocations");
+                for (JsonNode revocation : revocations) {
+                    revocationIndex.add(revocation.path("type").asText(), revocation.path("subject").asText(),
+                            revocation.path("revokedAt").asLong(), revocation.path("expiresAt").asLong());
+                }
+                if (revocations.size() < PAGE_SIZE) {
+                    break;
+                }
+                since = revocations.get(revocations.size() - 1).path("revokedAt").asLong();
+            }
+            lastSync = serverTime;
+            revocationIndex.purgeExpired();
+        } catch (Exception e) {
+            log.warn("Revocation sync from {} failed, keeping the current index: {}", routeId, e.getMessage());
+        }
+    }
+
+    // Calls the revocation feed on one instance of the auth-service
+    private JsonNode fetch(UpstreamClient client, long since) {
+        UpstreamInstance instance = loadBalancer.choose(client.getRoute());
+        URI uri = URI.create(instance.getBaseUrl() + FEED_PATH + "?since=" + since + "&limit=" + PAGE_SIZE);
+        instance.acquire();
+        try {
+            ResponseEntity<JsonNode> response = client.getRestTemplate().getForEntity(uri, JsonNode.class);
+            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                throw new IllegalStateException("revocation feed returned " + response.getStatusCode());
+            }
+            return response.getBody();
+        } finally {
+            instance.release();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ayaz.apigateway.security;
+
+/**
+ * Identity extracted from a verified access token
+ */
+public class VerifiedToken {
+
+    private final String userId;
+    private final String username;
+    private final String tokenId;
+    // Token family (login session) the token was issued in, null for tokens issued before families
+    private final String familyId;
+    // Issue time in epoch millis, from the iat_ms claim (iat * 1000 on older tokens)
+    private final long issuedAtMillis;
+    // Expiry time in epoch seconds, copied from the exp claim
+    private final long expiresAt;
+
+    public VerifiedToken(String userId, String username, String tokenId, String familyId,
+                         long issuedAtMillis, long expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.tokenId = tokenId;
+        this.familyId = familyId;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Returns true once the token's exp claim has passed
+     */
+    public boolean isExpired(long nowSeconds) {
+        return expiresAt <= nowSeconds;
+    }
+}
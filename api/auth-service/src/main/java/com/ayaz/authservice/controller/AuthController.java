@@ -2,15 +2,30 @@ package com.ayaz.authservice.controller;
 
 import com.ayaz.authservice.dto.AuthResponse;
 import com.ayaz.authservice.dto.LoginRequest;
+import com.ayaz.authservice.dto.RefreshRequest;
 import com.ayaz.authservice.dto.RegisterRequest;
+import com.ayaz.authservice.model.RefreshFamily;
 import com.ayaz.authservice.model.User;
 import com.ayaz.authservice.repository.UserRepository;
+import com.ayaz.authservice.security.HashingRejectedException;
+import com.ayaz.authservice.security.IssuedToken;
+import com.ayaz.authservice.security.JwtService;
+import com.ayaz.authservice.security.PasswordHasher;
+import com.ayaz.authservice.service.RefreshFamilyService;
+import com.ayaz.authservice.service.TokenRevocationService;
 import com.ayaz.authservice.service.UserService;
 import com.ayaz.authservice.util.ApiResponse;
+import com.ayaz.authservice.util.DuplicateKeys;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.UUID;
+
 /**
  * REST Controller for authentication operations
  * Handles user registration, login, and logout requests
@@ -21,10 +36,20 @@ public class AuthController {
 
     private final UserService userService;
     private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final PasswordHasher passwordHasher;
+    private final TokenRevocationService revocationService;
+    private final RefreshFamilyService refreshFamilyService;
 
-    public AuthController(UserService userService, UserRepository userRepository) {
+    public AuthController(UserService userService, UserRepository userRepository, JwtService jwtService,
+                          PasswordHasher passwordHasher, TokenRevocationService revocationService,
+                          RefreshFamilyService refreshFamilyService) {
         this.userService = userService;
         this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.passwordHasher = passwordHasher;
+        this.revocationService = revocationService;
+        this.refreshFamilyService = refreshFamilyService;
     }
 
     /**
@@ -40,33 +65,30 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Check if username already exists
-            if (userRepository.existsByUsername(request.getUsername())) {
-                ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.CONFLICT, "Username is already taken", null);
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-            }
-
-            // Check if email already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
-                ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.CONFLICT, "Email is already in use", null);
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-            }
-
             // Create new user object
             User newUser = new User();
             newUser.setFullName(request.getFullName());
             newUser.setUsername(request.getUsername());
             newUser.setEmail(request.getEmail());
-            newUser.setPassword(request.getPassword());
+            newUser.setPassword(passwordHasher.hash(request.getPassword()));
 
-            // Save user to database
-            User savedUser = userService.save(newUser);
+            // Assign the id up front so the tokens can be signed before the insert
+            newUser.setId(new ObjectId().toHexString());
+            String familyId = UUID.randomUUID().toString();
+            IssuedToken refreshToken = jwtService.createRefreshToken(newUser, familyId);
+            AuthResponse authResponse = authResponse(newUser, familyId, refreshToken);
 
-            // Create authentication response
-            AuthResponse authResponse = new AuthResponse("token_" + savedUser.getUsername());
+            // Insert in a single write - the unique username and email indexes reject duplicates
+            userService.insert(newUser);
+            refreshFamilyService.start(familyId, newUser.getId(), refreshToken);
             ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.CREATED, "User registered successfully", authResponse);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (DuplicateKeyException e) {
+            ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.CONFLICT, DuplicateKeys.messageFor(e), null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (HashingRejectedException e) {
+            return tooManyRequests();
         } catch (Exception e) {
             ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR, "Registration failed: " + e.getMessage(), null);
             return ResponseEntity.internalServerError().body(response);
@@ -95,30 +117,112 @@ public class AuthController {
             }
 
             // Check password
-            if (!user.getPassword().equals(request.getPassword())) {
+            if (!passwordHasher.matches(request.getPassword(), user.getPassword())) {
                 ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.UNAUTHORIZED, "Invalid username or password", null);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
 
-            // Create authentication response
-            AuthResponse authResponse = new AuthResponse("token_" + user.getUsername());
+            // Upgrade plaintext or lower-cost hashes in the background
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                String userId = user.getId();
+                passwordHasher.rehashAsync(request.getPassword(), hash -> userService.updatePassword(userId, hash));
+            }
+
+            // Every login starts its own token family, so sessions on other devices stay usable
+            String familyId = UUID.randomUUID().toString();
+            IssuedToken refreshToken = jwtService.createRefreshToken(user, familyId);
+            AuthResponse authResponse = authResponse(user, familyId, refreshToken);
+            refreshFamilyService.start(familyId, user.getId(), refreshToken);
             ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.OK, "Login successful", authResponse);
             
             return ResponseEntity.ok().body(response);
+        } catch (HashingRejectedException e) {
+            return tooManyRequests();
         } catch (Exception e) {
             ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR, "Login failed: " + e.getMessage(), null);
             return ResponseEntity.internalServerError().body(response);
         }
     }
 
+    /**
+     * Exchanges a refresh token for a new access/refresh token pair
+     * Each refresh token works once; presenting an already-used one ends its token family and
+     * revokes the family's access tokens, leaving the user's other sessions alone
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthResponse>> refreshTokens(@RequestBody RefreshRequest request) {
+        try {
+            Map<String, Object> claims = jwtService.parseRefreshToken(request.getRefreshToken());
+            if (claims == null) {
+                ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token", null);
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+
+            String userId = stringClaim(claims, "sub");
+            String tokenId = stringClaim(claims, "jti");
+            String familyId = stringClaim(claims, "fam");
+            // Tokens without a family predate token families and cannot be rotated; tokens
+            // missing a subject or id are malformed - both are rejected like an unknown token
+            RefreshFamily family = userId != null && tokenId != null && familyId != null
+                    ? refreshFamilyService.find(familyId)
+                    : null;
+            User user = family != null && family.getUserId().equals(userId) ? userService.findById(userId) : null;
+            if (user == null) {
+                ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token", null);
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+
+            // A refresh token that is no longer the family's current one has already been used
+            if (!tokenId.equals(family.getTokenId())) {
+                return reuseDetected(familyId);
+            }
+
+            // Rotate atomically - if a concurrent request already swapped the id, this one is a reuse
+            IssuedToken refreshToken = jwtService.createRefreshToken(user, familyId);
+            AuthResponse authResponse = authResponse(user, familyId, refreshToken);
+            if (!refreshFamilyService.rotate(familyId, tokenId, refreshToken)) {
+                return reuseDetected(familyId);
+            }
+
+            ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.OK, "Tokens refreshed", authResponse);
+            return ResponseEntity.ok().body(response);
+        } catch (Exception e) {
+            ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR, "Refresh failed: " + e.getMessage(), null);
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     /**
      * Logs out a user from the system
-     * Clears user session and tokens
+     * Ends the caller's token family and revokes its access tokens; all=true ends every
+     * family of the user and revokes all of their access tokens (logout from all devices)
      */
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<Object>> logoutUser() {
+    public ResponseEntity<ApiResponse<Object>> logoutUser(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(defaultValue = "false") boolean all) {
         try {
-            // Logout logic would be implemented here
+            String token = authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)
+                    ? authorization.substring(7).trim()
+                    : null;
+            Map<String, Object> claims = jwtService.parseAccessToken(token);
+            if (claims == null) {
+                ApiResponse<Object> response = new ApiResponse<>(HttpStatus.UNAUTHORIZED, "Missing or invalid access token", null);
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+
+            String userId = (String) claims.get("sub");
+            String familyId = (String) claims.get("fam");
+            if (all) {
+                refreshFamilyService.endAll(userId);
+                revocationService.revokeUser(userId);
+            } else if (familyId != null) {
+                refreshFamilyService.end(familyId);
+                revocationService.revokeFamily(familyId);
+            } else {
+                revocationService.revokeToken((String) claims.get("jti"), ((Number) claims.get("exp")).longValue());
+            }
+
             ApiResponse<Object> response = new ApiResponse<>(HttpStatus.OK, "Logout successful", null);
             return ResponseEntity.ok().body(response);
         } catch (Exception e) {
@@ -136,4 +240,37 @@ public class AuthController {
         ApiResponse<String> response = new ApiResponse<>(HttpStatus.OK, "Auth service is running", "UP");
         return ResponseEntity.ok().body(response);
     }
+
+    /**
+     * Builds the 429 response returned while password hashing is saturated
+     */
+    private ResponseEntity<ApiResponse<AuthResponse>> tooManyRequests() {
+        ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.TOO_MANY_REQUESTS, "Too many authentication requests, please retry", null);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+    }
+
+    /**
+     * Handles a reused refresh token: the token family may be stolen, so the family is ended
+     * and every access token issued in it is revoked; the user's other sessions keep working
+     */
+    private ResponseEntity<ApiResponse<AuthResponse>> reuseDetected(String familyId) {
+        refreshFamilyService.end(familyId);
+        revocationService.revokeFamily(familyId);
+        ApiResponse<AuthResponse> response = new ApiResponse<>(HttpStatus.UNAUTHORIZED, "Refresh token reuse detected, please log in again", null);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+    }
+
+    /**
+     * Issues an access token in the refresh token's family and pairs the two into the response
+     * The caller records the refresh token id on the family
+     */
+    private AuthResponse authResponse(User user, String familyId, IssuedToken refreshToken) {
+        IssuedToken accessToken = jwtService.createAccessToken(user, familyId);
+        return new AuthResponse(accessToken.getToken(), refreshToken.getToken(), jwtService.getAccessTokenMs() / 1000);
+    }
+
+    // A claim's value when it is a string, otherwise null
+    private static String stringClaim(Map<String, Object> claims, String name) {
+        return claims.get(name) instanceof String value ? value : null;
+    }
 }
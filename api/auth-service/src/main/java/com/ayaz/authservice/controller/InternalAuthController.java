@@ -0,0 +1,59 @@
+package com.ayaz.authservice.controller;
+
+import com.ayaz.authservice.model.RevokedToken;
+import com.ayaz.authservice.service.TokenRevocationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Internal endpoints used by other services
+ * Not routed by the API Gateway, so only reachable from inside the network
+ */
+@RestController
+@RequestMapping("/internal/api/auth")
+public class InternalAuthController {
+
+    // Upper bound on revocations returned by one call
+    private static final int MAX_LIMIT = 10_000;
+
+    private final TokenRevocationService revocationService;
+
+    public InternalAuthController(TokenRevocationService revocationService) {
+        this.revocationService = revocationService;
+    }
+
+    /**
+     * Revocation feed for the API Gateway
+     * Returns unexpired revocations made at or after since (epoch millis), oldest first;
+     * a full page means the caller should ask again from the last revokedAt
+     */
+    @GetMapping("/revocations")
+    public ResponseEntity<Map<String, Object>> revocations(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "" + MAX_LIMIT) int limit) {
+        long serverTime = System.currentTimeMillis();
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (RevokedToken revoked : revocationService.findSince(Instant.ofEpochMilli(since), Math.min(Math.max(limit, 1), MAX_LIMIT))) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("type", revoked.getType());
+            item.put("subject", revoked.getSubject());
+            item.put("revokedAt", revoked.getRevokedAt().toEpochMilli());
+            item.put("expiresAt", revoked.getExpiresAt().toEpochMilli());
+            items.add(item);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("serverTime", serverTime);
+        response.put("revocations", items);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -2,10 +2,13 @@ package com.ayaz.authservice.dto;
 
 /**
  * Response DTO for authentication operations
- * Contains the access token returned after successful login/registration
+ * Contains the tokens returned after successful login/registration
  */
 public class AuthResponse {
     private String accessToken;
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private long expiresIn;
 
     public AuthResponse() {
     }
@@ -14,6 +17,12 @@ public class AuthResponse {
         this.accessToken = accessToken;
     }
 
+    public AuthResponse(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     public String getAccessToken() {
         return accessToken;
     }
@@ -21,4 +30,20 @@ public class AuthResponse {
     public void setAccessToken(String accessToken) {
         this.accessToken = accessToken;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 }
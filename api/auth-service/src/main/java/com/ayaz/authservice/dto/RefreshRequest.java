@@ -0,0 +1,23 @@
+package com.ayaz.authservice.dto;
+
+/**
+ * Request DTO for refreshing tokens
+ * Contains the refresh token issued by the last login or refresh
+ */
+public class RefreshRequest {
+    private String refreshToken;
+
+    // Default constructor - creates an empty RefreshRequest object
+    public RefreshRequest() {
+    }
+
+    // Getter method - returns the refresh token
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    // Setter method - sets the refresh token
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
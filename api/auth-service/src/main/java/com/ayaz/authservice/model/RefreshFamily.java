@@ -0,0 +1,76 @@
+package com.ayaz.authservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One login session's chain of refresh tokens, stored in MongoDB
+ * Every login starts a new family, so each device or tab rotates its own refresh token and
+ * reuse detection only ends the session the reused token belongs to. MongoDB deletes the
+ * family once its current refresh token has expired unused.
+ */
+@Document(collection = "refresh_families")
+public class RefreshFamily {
+    @Id
+    private String id; // Family id, the fam claim of every token issued in the session
+    @Indexed
+    private String userId;
+    private String tokenId; // Id (jti) of the only refresh token of the family that may still be used
+    private Instant createdAt;
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    public RefreshFamily() {
+    }
+
+    public RefreshFamily(String id, String userId, String tokenId, Instant createdAt, Instant expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.tokenId = tokenId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
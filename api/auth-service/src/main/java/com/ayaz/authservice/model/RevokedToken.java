@@ -0,0 +1,81 @@
+package com.ayaz.authservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A revocation stored in MongoDB and replicated to the API Gateway
+ * Either a single token (type "token", subject = jti), every token of one login session
+ * (type "family", subject = family id) or every token of a user issued up to revokedAt
+ * (type "user", subject = user id). MongoDB deletes the entry once expiresAt has passed,
+ * by which time the tokens it covers have expired anyway.
+ */
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+    public static final String TYPE_TOKEN = "token";
+    public static final String TYPE_FAMILY = "family";
+    public static final String TYPE_USER = "user";
+
+    @Id
+    private String id; // <type>:<subject>
+    private String type;
+    private String subject;
+    @Indexed
+    private Instant revokedAt;
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String type, String subject, Instant revokedAt, Instant expiresAt) {
+        this.id = type + ":" + subject;
+        this.type = type;
+        this.subject = subject;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -18,18 +18,16 @@ public class User {
     @Indexed(unique = true)
     private String email;
     private String password;
-    private String refreshToken;
 
     public User() {
     }
 
-    public User(String id, String fullName, String username, String email, String password, String refreshToken) {
+    public User(String id, String fullName, String username, String email, String password) {
         this.id = id;
         this.fullName = fullName;
         this.username = username;
         this.email = email;
         this.password = password;
-        this.refreshToken = refreshToken;
     }
 
     public String getId() {
@@ -71,12 +69,4 @@ public class User {
     public void setPassword(String password) {
         this.password = password;
     }
-
-    public String getRefreshToken() {
-        return refreshToken;
-    }
-
-    public void setRefreshToken(String refreshToken) {
-        this.refreshToken = refreshToken;
-    }
 }
\ No newline at end of file
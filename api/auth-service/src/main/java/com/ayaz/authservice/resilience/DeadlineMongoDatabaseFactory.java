@@ -0,0 +1,27 @@
+package com.ayaz.authservice.resilience;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database factory that bounds every MongoDB operation by the current RequestDeadline
+ * MongoTemplate asks the factory for the database on each operation, so queries, updates
+ * and cursors started on a request thread get the time still left as their timeout and
+ * fail once the gateway has given up. Work without a deadline is not limited.
+ */
+public class DeadlineMongoDatabaseFactory extends SimpleMongoClientDatabaseFactory {
+
+    public DeadlineMongoDatabaseFactory(MongoClient mongoClient, String databaseName) {
+        super(mongoClient, databaseName);
+    }
+
+    @Override
+    protected MongoDatabase doGetMongoDatabase(String dbName) {
+        MongoDatabase database = super.doGetMongoDatabase(dbName);
+        Long remaining = RequestDeadline.remainingMillis();
+        return remaining == null ? database : database.withTimeout(Math.max(1, remaining), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ayaz.authservice.resilience;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Time budget of the request the current thread is handling
+ *
+ * The API Gateway sends the time it is still willing to wait as X-Request-Timeout
+ * (milliseconds). RequestDeadlineFilter turns it into a deadline for the thread, and
+ * MongoDB operations started on the thread stop once it has passed, so the service does not keep working on a request the
+ * gateway has already answered with 504.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    // Deadline (epoch millis) of the request being handled on this thread
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Returns the deadline carried by the request, or null when it has no readable X-Request-Timeout
+     */
+    public static Long resolve(HttpServletRequest request) {
+        String requested = request.getHeader(HEADER);
+        if (requested == null) {
+            return null;
+        }
+        try {
+            return System.currentTimeMillis() + Math.max(0, Long.parseLong(requested.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sets the deadline (epoch millis) for work done on this thread
+     */
+    public static void set(long deadline) {
+        DEADLINE.set(deadline);
+    }
+
+    /**
+     * Removes the deadline once the request is done
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * Returns the milliseconds left before the deadline, or null when no deadline is set
+     * (requests not sent through the gateway, background work)
+     */
+    public static Long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? null : deadline - System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,12 @@
+package com.ayaz.authservice.security;
+
+/**
+ * Thrown when the password hashing executor is saturated
+ * Callers should answer 429 so clients back off instead of queueing behind the CPU
+ */
+public class HashingRejectedException extends RuntimeException {
+
+    public HashingRejectedException(String message) {
+        super(message);
+    }
+}
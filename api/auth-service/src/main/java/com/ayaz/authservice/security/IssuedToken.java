@@ -0,0 +1,30 @@
+package com.ayaz.authservice.security;
+
+/**
+ * A freshly signed token together with its id (jti) and expiry
+ */
+public class IssuedToken {
+
+    private final String token;
+    private final String id;
+    // Expiry in epoch seconds, the token's exp claim
+    private final long expiresAt;
+
+    public IssuedToken(String token, String id, long expiresAt) {
+        this.token = token;
+        this.id = id;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
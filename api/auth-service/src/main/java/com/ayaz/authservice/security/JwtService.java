@@ -0,0 +1,172 @@
+package com.ayaz.authservice.security;
+
+import com.ayaz.authservice.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Issues and verifies signed JSON Web Tokens (HS256)
+ *
+ * Access tokens are verified locally by the API Gateway with the shared jwt.secret.access,
+ * so authenticating a request never needs a call back to this service.
+ * Claims: sub (user id), username, type (access/refresh), jti, fam (token family, one per
+ * login), iat, exp (epoch seconds) and iat_ms, the issue time in epoch millis that revocations
+ * are compared against
+ */
+@Component
+public class JwtService {
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    // {"alg":"HS256","typ":"JWT"} - the only header this service issues or accepts
+    private static final String HEADER = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final ObjectMapper objectMapper;
+    private final Mac accessMac;
+    private final Mac refreshMac;
+    private final long accessTokenMs;
+    private final long refreshTokenMs;
+
+    public JwtService(ObjectMapper objectMapper,
+                      @Value("${jwt.secret.access}") String accessSecret,
+                      @Value("${jwt.secret.refresh}") String refreshSecret,
+                      @Value("${jwt.expiration.access-token-ms}") long accessTokenMs,
+                      @Value("${jwt.expiration.refresh-token-ms}") long refreshTokenMs) throws GeneralSecurityException {
+        this.objectMapper = objectMapper;
+        this.accessMac = initMac(accessSecret);
+        this.refreshMac = initMac(refreshSecret);
+        this.accessTokenMs = accessTokenMs;
+        this.refreshTokenMs = refreshTokenMs;
+    }
+
+    /**
+     * Creates a signed access token in the user's token family, valid for jwt.expiration.access-token-ms
+     */
+    public IssuedToken createAccessToken(User user, String familyId) {
+        return issue(claims(user, familyId, TYPE_ACCESS, accessTokenMs), accessMac);
+    }
+
+    /**
+     * Creates a signed refresh token in the user's token family, valid for jwt.expiration.refresh-token-ms
+     */
+    public IssuedToken createRefreshToken(User user, String familyId) {
+        return issue(claims(user, familyId, TYPE_REFRESH, refreshTokenMs), refreshMac);
+    }
+
+    /**
+     * Verifies a refresh token's signature, type and expiry
+     * Returns its claims, or null if the token is not valid
+     */
+    public Map<String, Object> parseRefreshToken(String token) {
+        return verify(token, refreshMac, TYPE_REFRESH);
+    }
+
+    /**
+     * Verifies an access token's signature, type and expiry
+     * Returns its claims, or null if the token is not valid
+     */
+    public Map<String, Object> parseAccessToken(String token) {
+        return verify(token, accessMac, TYPE_ACCESS);
+    }
+
+    /**
+     * Returns the access token lifetime in milliseconds
+     */
+    public long getAccessTokenMs() {
+        return accessTokenMs;
+    }
+
+    // Builds the claim set for a new token
+    private Map<String, Object> claims(User user, String familyId, String type, long validityMs) {
+        long nowMs = System.currentTimeMillis();
+        long now = nowMs / 1000;
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.getId());
+        claims.put("username", user.getUsername());
+        claims.put("type", type);
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("fam", familyId);
+        claims.put("iat", now);
+        claims.put("iat_ms", nowMs);
+        claims.put("exp", now + validityMs / 1000);
+        return claims;
+    }
+
+    // Signs the claims and keeps the token id and expiry alongside the token
+    private IssuedToken issue(Map<String, Object> claims, Mac prototype) {
+        return new IssuedToken(sign(claims, prototype), (String) claims.get("jti"), (Long) claims.get("exp"));
+    }
+
+    // Serializes the claims and appends the HMAC signature
+    private String sign(Map<String, Object> claims, Mac prototype) {
+        try {
+            String payload = base64Url(objectMapper.writeValueAsBytes(claims));
+            String signingInput = HEADER + "." + payload;
+            return signingInput + "." + base64Url(newMac(prototype).doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to sign token", e);
+        }
+    }
+
+    // Checks header, signature, type and expiry; returns the claims or null
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> verify(String token, Mac prototype, String expectedType) {
+        if (token == null) {
+            return null;
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot || !HEADER.equals(token.substring(0, firstDot))) {
+            return null;
+        }
+
+        try {
+            byte[] expected = newMac(prototype).doFinal(token.substring(0, lastDot).getBytes(StandardCharsets.US_ASCII));
+            byte[] actual = Base64.getUrlDecoder().decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+
+            Map<String, Object> claims = objectMapper.readValue(
+                    Base64.getUrlDecoder().decode(token.substring(firstDot + 1, lastDot)), Map.class);
+            Object exp = claims.get("exp");
+            if (!expectedType.equals(claims.get("type")) || !(exp instanceof Number)
+                    || ((Number) exp).longValue() <= System.currentTimeMillis() / 1000) {
+                return null;
+            }
+            return claims;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Mac instances are not thread-safe, so each call works on a copy of the initialized prototype
+    private static Mac newMac(Mac prototype) throws CloneNotSupportedException {
+        return (Mac) prototype.clone();
+    }
+
+    // Creates an HMAC-SHA256 instance keyed with the secret
+    private static Mac initMac(String secret) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+        return mac;
+    }
+
+    // Base64url without padding, as required by the JWT spec
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
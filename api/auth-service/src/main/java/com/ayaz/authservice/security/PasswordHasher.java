@@ -0,0 +1,146 @@
+package com.ayaz.authservice.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and verifies passwords with bcrypt on a dedicated executor
+ *
+ * Bcrypt is deliberately CPU-heavy, so the work runs on a pool sized to the CPU count
+ * with a bounded queue instead of on request threads. When the queue is full new work
+ * is rejected immediately with HashingRejectedException rather than piling up.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    // Matches $2a$, $2b$ and $2y$ bcrypt hashes; anything else is a legacy plaintext password
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHasher(
+            @Value("${auth.password.bcrypt-strength:10}") int strength,
+            @Value("${auth.password.hash-threads:0}") int hashThreads,
+            @Value("${auth.password.queue-capacity:64}") int queueCapacity) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hashes a raw password with the configured bcrypt strength
+     * Throws HashingRejectedException when the executor is saturated
+     */
+    public String hash(String rawPassword) {
+        return await(submit(() -> encoder.encode(rawPassword)));
+    }
+
+    /**
+     * Checks a raw password against the stored value
+     * Stored values that are not bcrypt hashes are compared as legacy plaintext
+     * Throws HashingRejectedException when the executor is saturated
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (storedPassword == null || rawPassword == null) {
+            return false;
+        }
+        if (!isBcrypt(storedPassword)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return await(submit(() -> encoder.matches(rawPassword, storedPassword)));
+    }
+
+    /**
+     * Returns true when the stored value is plaintext or was hashed with a lower strength
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isBcrypt(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    /**
+     * Hashes the password in the background and passes the result to the callback
+     * Used for rehash-on-login; skipped silently when the executor is busy
+     */
+    public void rehashAsync(String rawPassword, Consumer<String> callback) {
+        try {
+            executor.execute(() -> {
+                try {
+                    callback.accept(encoder.encode(rawPassword));
+                } catch (Exception e) {
+                    log.warn("Password rehash failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The next login will try again
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Queues the task, translating a full queue into HashingRejectedException
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new HashingRejectedException("Password hashing capacity exceeded");
+        }
+    }
+
+    // Waits for a hashing task; the calling thread blocks but uses no CPU meanwhile
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static boolean isBcrypt(String storedPassword) {
+        return storedPassword != null && BCRYPT_PATTERN.matcher(storedPassword).matches();
+    }
+
+    /**
+     * Names hashing threads so they are easy to spot in thread dumps
+     */
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ayaz.authservice.service;
+
+import com.ayaz.authservice.model.RefreshFamily;
+import com.ayaz.authservice.security.IssuedToken;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Tracks the current refresh token of every login session (token family)
+ */
+@Service
+public class RefreshFamilyService {
+
+    private final MongoTemplate mongoTemplate;
+
+    public RefreshFamilyService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Starts a family whose only usable refresh token is the given one
+     */
+    public void start(String familyId, String userId, IssuedToken refreshToken) {
+        mongoTemplate.insert(new RefreshFamily(familyId, userId, refreshToken.getId(), Instant.now(),
+                Instant.ofEpochSecond(refreshToken.getExpiresAt())));
+    }
+
+    /**
+     * Finds a family by id
+     * Returns null once the family has ended (logout, reuse or expiry)
+     */
+    public RefreshFamily find(String familyId) {
+        return mongoTemplate.findById(familyId, RefreshFamily.class);
+    }
+
+    /**
+     * Replaces the family's current refresh token only if it still equals expectedId
+     * Returns false when another refresh already rotated it (the token is being reused)
+     */
+    public boolean rotate(String familyId, String expectedId, IssuedToken refreshToken) {
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(familyId).and("tokenId").is(expectedId)),
+                new Update().set("tokenId", refreshToken.getId())
+                        .set("expiresAt", Instant.ofEpochSecond(refreshToken.getExpiresAt())),
+                RefreshFamily.class).getModifiedCount() == 1;
+    }
+
+    /**
+     * Ends one family; its refresh tokens can no longer be used
+     */
+    public void end(String familyId) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(familyId)), RefreshFamily.class);
+    }
+
+    /**
+     * Ends every family of the user (logout from all devices)
+     */
+    public void endAll(String userId) {
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), RefreshFamily.class);
+    }
+}
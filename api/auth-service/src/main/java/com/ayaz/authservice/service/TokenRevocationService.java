@@ -0,0 +1,67 @@
+package com.ayaz.authservice.service;
+
+import com.ayaz.authservice.model.RevokedToken;
+import com.ayaz.authservice.security.JwtService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records revoked access tokens in MongoDB
+ * Entries are kept only until the tokens they cover would have expired (TTL index),
+ * and are read by the API Gateway as a feed ordered by revocation time
+ */
+@Service
+public class TokenRevocationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final JwtService jwtService;
+
+    public TokenRevocationService(MongoTemplate mongoTemplate, JwtService jwtService) {
+        this.mongoTemplate = mongoTemplate;
+        this.jwtService = jwtService;
+    }
+
+    /**
+     * Revokes a single access token until its expiry (epoch seconds)
+     */
+    public void revokeToken(String tokenId, long expiresAt) {
+        mongoTemplate.save(new RevokedToken(RevokedToken.TYPE_TOKEN, tokenId, Instant.now(),
+                Instant.ofEpochSecond(expiresAt)));
+    }
+
+    /**
+     * Revokes every access token of one token family (login session)
+     * The family has ended, so it issues no further tokens; kept for one access token lifetime
+     */
+    public void revokeFamily(String familyId) {
+        Instant now = Instant.now();
+        mongoTemplate.save(new RevokedToken(RevokedToken.TYPE_FAMILY, familyId, now,
+                now.plusMillis(jwtService.getAccessTokenMs())));
+    }
+
+    /**
+     * Revokes every access token issued to the user up to now
+     * Kept for one access token lifetime, after which all of those tokens have expired
+     */
+    public void revokeUser(String userId) {
+        Instant now = Instant.now();
+        mongoTemplate.save(new RevokedToken(RevokedToken.TYPE_USER, userId, now,
+                now.plusMillis(jwtService.getAccessTokenMs())));
+    }
+
+    /**
+     * Returns up to limit unexpired revocations made at or after since, oldest first
+     */
+    public List<RevokedToken> findSince(Instant since, int limit) {
+        Query query = Query.query(Criteria.where("revokedAt").gte(since).and("expiresAt").gt(Instant.now()))
+                .with(Sort.by(Sort.Direction.ASC, "revokedAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, RevokedToken.class);
+    }
+}
@@ -2,6 +2,10 @@ package com.ayaz.authservice.service;
 
 import com.ayaz.authservice.model.User;
 import com.ayaz.authservice.repository.UserRepository;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 /**
@@ -12,9 +16,11 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, MongoTemplate mongoTemplate) {
         this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
     }
 
     /**
@@ -41,6 +47,14 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * Inserts a new user in a single write
+     * Throws DuplicateKeyException when the username or email is already taken
+     */
+    public User insert(User user) {
+        return userRepository.insert(user);
+    }
+
     /**
      * Checks if a user exists with the given username
      * Returns true if exists, false otherwise
@@ -56,4 +70,13 @@ public class UserService {
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces only the stored password hash of a user
+     * Other fields are left untouched so concurrent profile updates are not overwritten
+     */
+    public void updatePassword(String id, String passwordHash) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                Update.update("password", passwordHash), User.class);
+    }
+}
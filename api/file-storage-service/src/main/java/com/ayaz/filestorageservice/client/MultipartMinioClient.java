@@ -0,0 +1,78 @@
+package com.ayaz.filestorageservice.client;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.AbortMultipartUploadResponse;
+import io.minio.CreateMultipartUploadResponse;
+import io.minio.ListPartsResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.UploadPartResponse;
+import io.minio.errors.MinioException;
+import io.minio.messages.Part;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MinIO client exposing the low-level S3 multipart upload calls
+ * MinioAsyncClient only offers these as protected methods, so this subclass
+ * makes them available to the upload engine
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * Starts a multipart upload and returns its upload id
+     */
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUpload(
+            String bucket, String object, String contentType)
+            throws IOException, GeneralSecurityException, MinioException {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        return createMultipartUploadAsync(bucket, null, object, headers, null);
+    }
+
+    /**
+     * Uploads one part of a multipart upload
+     * Only the first length bytes of data are sent
+     */
+    public CompletableFuture<UploadPartResponse> uploadPart(
+            String bucket, String object, byte[] data, int length, String uploadId, int partNumber)
+            throws IOException, GeneralSecurityException, MinioException {
+        return uploadPartAsync(bucket, null, object, data, length, uploadId, partNumber, null, null);
+    }
+
+    /**
+     * Completes a multipart upload from its parts, which must be sorted by part number
+     */
+    public CompletableFuture<ObjectWriteResponse> completeMultipartUpload(
+            String bucket, String object, String uploadId, Part[] parts)
+            throws IOException, GeneralSecurityException, MinioException {
+        return completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null);
+    }
+
+    /**
+     * Aborts a multipart upload and discards the parts stored so far
+     */
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUpload(
+            String bucket, String object, String uploadId)
+            throws IOException, GeneralSecurityException, MinioException {
+        return abortMultipartUploadAsync(bucket, null, object, uploadId, null, null);
+    }
+
+    /**
+     * Lists the parts already stored for a multipart upload, starting after partNumberMarker
+     */
+    public CompletableFuture<ListPartsResponse> listParts(
+            String bucket, String object, String uploadId, int partNumberMarker)
+            throws IOException, GeneralSecurityException, MinioException {
+        return listPartsAsync(bucket, null, object, 1000, partNumberMarker, uploadId, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ayaz.filestorageservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bucket configuration for MinIO
+ * Maps each file type (avatar, coverImage, video) to its own bucket via minio.buckets.*
+ * File types without an entry are stored in minio.bucket-name
+ * An object is only looked up in the bucket of its type, so adding an entry for a type
+ * that already has files requires moving them out of minio.bucket-name first
+ */
+@ConfigurationProperties(prefix = "minio")
+public class BucketProperties {
+
+    private String bucketName;
+    private Map<String, String> buckets = new HashMap<>();
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public Map<String, String> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(Map<String, String> buckets) {
+        this.buckets = buckets;
+    }
+}
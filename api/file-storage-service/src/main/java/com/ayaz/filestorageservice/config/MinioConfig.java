@@ -1,17 +1,29 @@
 package com.ayaz.filestorageservice.config;
 
+import com.ayaz.filestorageservice.client.MultipartMinioClient;
+import com.ayaz.filestorageservice.resilience.DeadlineInterceptor;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for MinIO client
  * Sets up the connection to MinIO object storage
  */
 @Configuration
+@EnableConfigurationProperties(BucketProperties.class)
 public class MinioConfig {
 
+    // MinIO's own default for the connect, write and read timeouts
+    private static final long DEFAULT_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+
     @Value("${minio.endpoint}")
     private String endpoint;
     
@@ -21,15 +33,53 @@ public class MinioConfig {
     @Value("${minio.secret-key}")
     private String secretKey;
 
+    // Address clients use to reach MinIO directly - presigned URLs are signed for this host
+    @Value("${minio.public-endpoint:${minio.endpoint}}")
+    private String publicEndpoint;
+
+    @Value("${minio.region:us-east-1}")
+    private String region;
+
     /**
      * Creates and configures MinIO client bean
      * This bean is used throughout the application to interact with MinIO
+     * Calls made while handling a request are bounded by the request's deadline
      */
     @Bean
+    @Primary
     public MinioClient minioClient() {
         return MinioClient.builder()
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey)
+                .httpClient(HttpUtils.newDefaultHttpClient(DEFAULT_TIMEOUT_MS, DEFAULT_TIMEOUT_MS, DEFAULT_TIMEOUT_MS)
+                        .newBuilder()
+                        .addInterceptor(new DeadlineInterceptor())
+                        .build())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the MinIO client used to sign presigned URLs
+     * The region is fixed so signing is a purely local computation with no bucket location lookup
+     */
+    @Bean
+    public MinioClient presignMinioClient() {
+        return MinioClient.builder()
+                .endpoint(publicEndpoint)
+                .region(region)
+                .credentials(accessKey, secretKey)
+                .build();
+    }
+
+    /**
+     * Creates the MinIO client used for parallel multipart uploads
+     * Exposes the part-level S3 calls that MinioClient keeps internal
+     */
+    @Bean
+    public MultipartMinioClient multipartMinioClient() {
+        return new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .build());
+    }
+}
@@ -1,10 +1,22 @@
 package com.ayaz.filestorageservice.controller;
 
 import com.ayaz.filestorageservice.service.FileStorageService;
+import com.ayaz.filestorageservice.service.PresignedUrlService;
+import com.ayaz.filestorageservice.service.PresignedUrlService.PresignedUrl;
+import io.minio.StatObjectResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,10 +28,16 @@ import java.util.Map;
 @RequestMapping("/api/files")
 public class FileController {
 
+    private static final String FILES_PATH = "/api/files/";
+    // Size of the buffer used to stream object bytes to the client
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
     private final FileStorageService fileStorageService;
+    private final PresignedUrlService presignedUrlService;
 
-    public FileController(FileStorageService fileStorageService) {
+    public FileController(FileStorageService fileStorageService, PresignedUrlService presignedUrlService) {
         this.fileStorageService = fileStorageService;
+        this.presignedUrlService = presignedUrlService;
     }
 
     /**
@@ -66,8 +84,15 @@ public class FileController {
                 errorResponse.put("error", "Object name is required");
                 return ResponseEntity.badRequest().body(errorResponse);
             }
+            // Names starting with a dot are internal (e.g. upload session state)
+            if (objectName.startsWith(".")) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Invalid object name");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
             
             fileStorageService.deleteFile(objectName);
+            presignedUrlService.evict(objectName);
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "File deleted successfully");
@@ -79,4 +104,255 @@ public class FileController {
             return ResponseEntity.internalServerError().body(errorResponse);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Issues a short-lived presigned PUT URL so the client uploads straight to MinIO
+     * Returns the object name to report back to /presigned/complete once the upload finished
+     */
+    @PostMapping("/presigned/upload")
+    public ResponseEntity<Map<String, Object>> presignUpload(
+            @RequestBody Map<String, String> payload,
+            @RequestHeader(value = "X-User-ID", required = false) String userId
+    ) {
+        try {
+            String fileName = payload.get("fileName");
+            String fileType = payload.get("fileType");
+            if (fileName == null || fileName.isEmpty() || fileType == null || fileType.isEmpty()) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "fileName and fileType are required");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            String objectName = fileStorageService.createObjectName(resolveUser(userId), fileType, fileName);
+            PresignedUrl url = presignedUrlService.presignUpload(objectName, fileType);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("objectName", objectName);
+            response.put("method", "PUT");
+            response.put("url", url.getUrl());
+            response.put("expiresAt", url.getExpiresAt());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to presign upload: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * Returns a presigned GET URL so the client downloads straight from MinIO
+     * Recently issued URLs are re-used for hot objects
+     */
+    @GetMapping("/presigned/download")
+    public ResponseEntity<Map<String, Object>> presignDownload(@RequestParam("objectName") String objectName) {
+        try {
+            if (objectName.isEmpty() || objectName.startsWith(".")) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Invalid object name");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            PresignedUrl url = presignedUrlService.presignDownload(objectName);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("objectName", objectName);
+            response.put("url", url.getUrl());
+            response.put("expiresAt", url.getExpiresAt());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to presign download: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * Completion callback for presigned uploads
+     * Verifies the object now exists in MinIO and belongs to the caller, and returns its metadata
+     */
+    @PostMapping("/presigned/complete")
+    public ResponseEntity<Map<String, Object>> completePresignedUpload(
+            @RequestBody Map<String, String> payload,
+            @RequestHeader(value = "X-User-ID", required = false) String userId
+    ) {
+        try {
+            String objectName = payload.get("objectName");
+            if (objectName == null || !objectName.startsWith(resolveUser(userId) + "/")) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Object does not belong to this user");
+                return ResponseEntity.status(HttpServletResponse.SC_FORBIDDEN).body(errorResponse);
+            }
+
+            StatObjectResponse stat = fileStorageService.statFile(objectName);
+            if (stat == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Object has not been uploaded");
+                return ResponseEntity.status(HttpServletResponse.SC_NOT_FOUND).body(errorResponse);
+            }
+            presignedUrlService.evict(objectName);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("objectName", objectName);
+            response.put("size", stat.size());
+            response.put("etag", stat.etag());
+            response.put("contentType", stat.contentType());
+            response.put("message", "File uploaded successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to complete upload: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * Streams a stored file to the client
+     * Supports Range/If-Range for seeking and ETag/If-None-Match for revalidation,
+     * and only reads the requested byte range from MinIO
+     */
+    @GetMapping("/**")
+    public void downloadFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String objectName = UriUtils.decode(request.getRequestURI().substring(FILES_PATH.length()), StandardCharsets.UTF_8);
+        // Names starting with a dot are internal (e.g. upload session state)
+        if (objectName.isEmpty() || objectName.startsWith(".")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        StatObjectResponse stat;
+        try {
+            stat = fileStorageService.statFile(objectName);
+        } catch (Exception e) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to read file: " + e.getMessage());
+            return;
+        }
+        if (stat == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = stat.size();
+        String etag = "\"" + stat.etag() + "\"";
+        String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(stat.lastModified());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        // The client already has this version
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range: only honour the range when the client's copy is still current
+        boolean rangeValid = ifRange == null || ifRange.equals(etag) || ifRange.equals(lastModified);
+        long[] requested = range != null && rangeValid ? parseRange(range, size) : null;
+
+        if (requested != null && requested.length == 0) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (requested != null) {
+            start = requested[0];
+            end = requested[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+
+        long length = end - start + 1;
+        response.setContentType(stat.contentType() != null ? stat.contentType() : "application/octet-stream");
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        try (InputStream input = fileStorageService.openFile(objectName, start, length)) {
+            OutputStream output = response.getOutputStream();
+            byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            output.flush();
+        } catch (IOException e) {
+            // Client went away mid-stream (e.g. the player seeked elsewhere)
+            throw e;
+        } catch (Exception e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to read file: " + e.getMessage());
+            }
+        }
+    }
+
+    // Use a default user ID if not provided, like the multipart upload endpoint
+    private String resolveUser(String userId) {
+        return userId == null || userId.isEmpty() ? "anonymous" : userId;
+    }
+
+    // Checks an If-None-Match header against the current ETag, including "*" and weak tags
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a single "bytes=" range against the file size
+     * Returns {start, end} (inclusive), an empty array when unsatisfiable,
+     * or null when the header is malformed or asks for several ranges (full file is served)
+     */
+    private long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[] {Math.max(0, size - suffix), size - 1};
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Long.parseLong(last);
+            if (end < start) {
+                return null;
+            }
+            if (start >= size) {
+                return new long[0];
+            }
+            end = Math.min(end, size - 1);
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ayaz.filestorageservice.controller;
+
+import com.ayaz.filestorageservice.model.UploadSession;
+import com.ayaz.filestorageservice.service.ResumableUploadService;
+import com.ayaz.filestorageservice.service.UploadBusyException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for resumable chunked uploads
+ *
+ * Protocol:
+ *  1. POST   /api/files/uploads                      - start a session, returns sessionId and partSize
+ *  2. PUT    /api/files/uploads/{sessionId}?offset=N - send the raw bytes of one part starting at offset N
+ *  3. GET    /api/files/uploads/{sessionId}          - check progress, nextOffset is where to resume
+ *  4. POST   /api/files/uploads/{sessionId}/complete - assemble the file once every part is stored
+ *     DELETE /api/files/uploads/{sessionId}          - abort the upload
+ */
+@RestController
+@RequestMapping("/api/files/uploads")
+public class UploadController {
+
+    private final ResumableUploadService resumableUploadService;
+
+    public UploadController(ResumableUploadService resumableUploadService) {
+        this.resumableUploadService = resumableUploadService;
+    }
+
+    /**
+     * Starts a resumable upload session
+     * Expects fileName, fileType, size and optionally contentType in the body
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> initUpload(
+            @RequestBody Map<String, Object> payload,
+            @RequestHeader(value = "X-User-ID", required = false) String userId
+    ) {
+        try {
+            Object fileName = payload.get("fileName");
+            Object fileType = payload.get("fileType");
+            Object size = payload.get("size");
+            if (fileName == null || fileType == null || !(size instanceof Number)) {
+                return error(HttpStatus.BAD_REQUEST, "fileName, fileType and size are required");
+            }
+
+            Object contentType = payload.get("contentType");
+            UploadSession session = resumableUploadService.init(
+                    resolveUser(userId),
+                    fileType.toString(),
+                    fileName.toString(),
+                    contentType != null ? contentType.toString() : "application/octet-stream",
+                    ((Number) size).longValue());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("sessionId", session.getSessionId());
+            response.put("objectName", session.getObjectName());
+            response.put("partSize", session.getPartSize());
+            response.put("totalParts", session.getTotalParts());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to start upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stores one chunk of the file
+     * The request body is read straight from the connection into a single part
+     */
+    @PutMapping("/{sessionId}")
+    public ResponseEntity<Map<String, Object>> uploadChunk(
+            @PathVariable String sessionId,
+            @RequestParam("offset") long offset,
+            @RequestHeader(value = "X-User-ID", required = false) String userId,
+            HttpServletRequest request
+    ) {
+        try {
+            UploadSession session = resumableUploadService.find(sessionId);
+            ResponseEntity<Map<String, Object>> rejected = checkSession(session, userId);
+            if (rejected != null) {
+                return rejected;
+            }
+
+            long nextOffset = resumableUploadService.writeChunk(session, offset,
+                    request.getInputStream(), request.getContentLengthLong());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("sessionId", sessionId);
+            response.put("nextOffset", nextOffset);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (UploadBusyException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(errorResponse);
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store chunk: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the progress of an upload session
+     */
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<Map<String, Object>> getStatus(
+            @PathVariable String sessionId,
+            @RequestHeader(value = "X-User-ID", required = false) String userId
+    ) {
+        try {
+            UploadSession session = resumableUploadService.find(sessionId);
+            ResponseEntity<Map<String, Object>> rejected = checkSession(session, userId);
+            if (rejected != null) {
+                return rejected;
+            }
+            return ResponseEntity.ok(resumableUploadService.status(session));
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read upload status: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Completes an upload session once every part is stored
+     * Returns the object name of the uploaded file
+     */
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<Map<String, Object>> completeUpload(
+            @PathVariable String sessionId,
+            @RequestHeader(value = "X-User-ID", required = false) String userId
+    ) {
+        try {
+            UploadSession session = resumableUploadService.find(sessionId);
+            ResponseEntity<Map<String, Object>> rejected = checkSession(session, userId);
+            if (rejected != null) {
+                return rejected;
+            }
+
+            String objectName = resumableUploadService.complete(session);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("objectName", objectName);
+            response.put("message", "File uploaded successfully");
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to complete upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aborts an upload session and discards the stored parts
+     */
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Map<String, Object>> abortUpload(
+            @PathVariable String sessionId,
+            @RequestHeader(value = "X-User-ID", required = false) String userId
+    ) {
+        try {
+            UploadSession session = resumableUploadService.find(sessionId);
+            ResponseEntity<Map<String, Object>> rejected = checkSession(session, userId);
+            if (rejected != null) {
+                return rejected;
+            }
+
+            resumableUploadService.abort(session);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Upload aborted");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to abort upload: " + e.getMessage());
+        }
+    }
+
+    // Returns an error response if the session is missing or belongs to another user, null otherwise
+    private ResponseEntity<Map<String, Object>> checkSession(UploadSession session, String userId) {
+        if (session == null) {
+            return error(HttpStatus.NOT_FOUND, "Upload session not found");
+        }
+        if (!session.getUserId().equals(resolveUser(userId))) {
+            return error(HttpStatus.FORBIDDEN, "Upload session belongs to another user");
+        }
+        return null;
+    }
+
+    // Use a default user ID if not provided, like the single-request upload
+    private String resolveUser(String userId) {
+        return userId == null || userId.isEmpty() ? "anonymous" : userId;
+    }
+
+    // Builds an error response body
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
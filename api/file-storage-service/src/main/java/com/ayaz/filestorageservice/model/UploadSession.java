@@ -0,0 +1,107 @@
+package com.ayaz.filestorageservice.model;
+
+/**
+ * State of a resumable upload session
+ * Persisted as JSON next to the uploaded objects so any instance can resume it
+ */
+public class UploadSession {
+    private String sessionId;
+    private String uploadId; // S3 multipart upload id
+    private String bucket;
+    private String objectName;
+    private String userId;
+    private String fileType;
+    private String contentType;
+    private long size; // Total file size in bytes
+    private long partSize; // Every chunk except the last must be exactly this size
+    private long createdAt;
+
+    // Default constructor - required for JSON deserialization
+    public UploadSession() {
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(long partSize) {
+        this.partSize = partSize;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // Number of parts the file is split into - at least one, even for empty files
+    public int getTotalParts() {
+        return (int) Math.max(1, (size + partSize - 1) / partSize);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ayaz.filestorageservice.resilience;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OkHttp interceptor that cuts the MinIO client's timeouts to the current RequestDeadline
+ * Connecting, each write and each read of the call may take at most the time still left,
+ * and a call made after the deadline fails at once. Calls without a deadline keep the
+ * client's own timeouts.
+ */
+public class DeadlineInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Long remaining = RequestDeadline.remainingMillis();
+        if (remaining == null) {
+            return chain.proceed(chain.request());
+        }
+        if (remaining <= 0) {
+            throw new InterruptedIOException("Request deadline exceeded");
+        }
+        int budget = (int) Math.min(remaining, Integer.MAX_VALUE);
+        return chain
+                .withConnectTimeout(bound(chain.connectTimeoutMillis(), budget), TimeUnit.MILLISECONDS)
+                .withWriteTimeout(bound(chain.writeTimeoutMillis(), budget), TimeUnit.MILLISECONDS)
+                .withReadTimeout(bound(chain.readTimeoutMillis(), budget), TimeUnit.MILLISECONDS)
+                .proceed(chain.request());
+    }
+
+    // The smaller of the configured timeout and the budget; 0 means the client has no timeout
+    private static int bound(int configured, int budget) {
+        return configured == 0 ? budget : Math.min(configured, budget);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ayaz.filestorageservice.resilience;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies the gateway's X-Request-Timeout to the request thread for the whole request
+ *
+ * Uploads and streaming downloads are exempt: a multi-GB transfer legitimately outlasts any
+ * total budget, so those requests are bounded only by the MinIO client's per-read and
+ * per-write timeouts, which fail a transfer once it stops making progress.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private static final String FILES_PATH = "/api/files/";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        if ("POST".equals(method)) {
+            // Single-request upload, spooled and sent to MinIO part by part
+            return path.equals(FILES_PATH + "upload");
+        }
+        if ("PUT".equals(method)) {
+            // One chunk of a resumable upload
+            return path.startsWith(FILES_PATH + "uploads/");
+        }
+        if ("GET".equals(method)) {
+            // File downloads stream the object; presign and upload status calls stay bounded
+            return path.startsWith(FILES_PATH)
+                    && !path.startsWith(FILES_PATH + "presigned/")
+                    && !path.startsWith(FILES_PATH + "uploads/");
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long deadline = RequestDeadline.resolve(request);
+        if (deadline == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        RequestDeadline.set(deadline);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
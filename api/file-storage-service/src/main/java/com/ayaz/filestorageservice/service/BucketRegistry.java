@@ -0,0 +1,126 @@
+package com.ayaz.filestorageservice.service;
+
+import com.ayaz.filestorageservice.config.BucketProperties;
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provisions MinIO buckets and remembers which ones are known to exist
+ *
+ * All configured buckets are created at startup. Uploads then only consult the in-memory
+ * verified set, so storing a file costs a single round trip to MinIO instead of a
+ * bucketExists check followed by the upload.
+ */
+@Component
+public class BucketRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(BucketRegistry.class);
+
+    private final MinioClient minioClient;
+    private final BucketProperties bucketProperties;
+    private final Set<String> verifiedBuckets = ConcurrentHashMap.newKeySet();
+
+    public BucketRegistry(MinioClient minioClient, BucketProperties bucketProperties) {
+        this.minioClient = minioClient;
+        this.bucketProperties = bucketProperties;
+    }
+
+    /**
+     * Creates every configured bucket once the application has started
+     * A MinIO outage at startup is not fatal - the bucket is provisioned on first use instead
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionConfiguredBuckets() {
+        Set<String> buckets = new LinkedHashSet<>();
+        buckets.add(bucketProperties.getBucketName());
+        buckets.addAll(bucketProperties.getBuckets().values());
+        for (String bucket : buckets) {
+            try {
+                ensureBucket(bucket);
+            } catch (Exception e) {
+                log.warn("Could not provision bucket {} at startup: {}", bucket, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the bucket that stores files of the given type
+     */
+    public String bucketFor(String fileType) {
+        return bucketProperties.getBuckets().getOrDefault(fileType, bucketProperties.getBucketName());
+    }
+
+    /**
+     * Returns the bucket that stores the given object
+     * Object names have the form userId/fileType/UUID-originalFilename
+     */
+    public String bucketForObject(String objectName) {
+        int first = objectName.indexOf('/');
+        int second = first >= 0 ? objectName.indexOf('/', first + 1) : -1;
+        if (second < 0) {
+            return bucketProperties.getBucketName();
+        }
+        return bucketFor(objectName.substring(first + 1, second));
+    }
+
+    /**
+     * Makes sure the bucket exists
+     * Costs nothing once the bucket has been verified, otherwise checks and creates it
+     */
+    public void ensureBucket(String bucket) throws Exception {
+        if (verifiedBuckets.contains(bucket)) {
+            return;
+        }
+        provision(bucket);
+    }
+
+    /**
+     * Forgets a bucket, e.g. after MinIO reported it missing
+     * It is checked and re-created on next use
+     */
+    public void invalidate(String bucket) {
+        verifiedBuckets.remove(bucket);
+    }
+
+    // Serialized so concurrent first uploads do not race on makeBucket
+    private synchronized void provision(String bucket) throws Exception {
+        if (verifiedBuckets.contains(bucket)) {
+            return;
+        }
+
+        boolean found = minioClient.bucketExists(
+            BucketExistsArgs.builder()
+                .bucket(bucket)
+                .build()
+        );
+
+        if (!found) {
+            try {
+                minioClient.makeBucket(
+                    MakeBucketArgs.builder()
+                        .bucket(bucket)
+                        .build()
+                );
+            } catch (ErrorResponseException e) {
+                // Another service instance created it between our check and create
+                String code = e.errorResponse().code();
+                if (!"BucketAlreadyOwnedByYou".equals(code) && !"BucketAlreadyExists".equals(code)) {
+                    throw e;
+                }
+            }
+        }
+
+        verifiedBuckets.add(bucket);
+    }
+}
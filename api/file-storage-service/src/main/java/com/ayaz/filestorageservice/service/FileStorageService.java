@@ -1,8 +1,10 @@
 package com.ayaz.filestorageservice.service;
 
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
@@ -16,62 +18,107 @@ import java.util.UUID;
 public class FileStorageService {
 
     private final MinioClient minioClient;
+    private final MultipartUploadEngine multipartUploadEngine;
+    private final BucketRegistry bucketRegistry;
 
-    @Value("${minio.bucket-name}")
-    private String bucketName;
+    // Files at or above this size are uploaded as parallel multipart uploads
+    @Value("${minio.upload.multipart-threshold:64MB}")
+    private DataSize multipartThreshold;
 
-    // Constructor - initializes the service with MinioClient dependency
-    public FileStorageService(MinioClient minioClient) {
+    // Constructor - initializes the service with the MinIO clients and bucket registry
+    public FileStorageService(MinioClient minioClient, MultipartUploadEngine multipartUploadEngine,
+                              BucketRegistry bucketRegistry) {
         this.minioClient = minioClient;
+        this.multipartUploadEngine = multipartUploadEngine;
+        this.bucketRegistry = bucketRegistry;
     }
 
     /**
      * Uploads a file to MinIO storage
-     * Creates a unique object name and stores the file
+     * Creates a unique object name and stores the file in the bucket for its file type
      * Returns the object name/key of the uploaded file
      */
     public String uploadFile(MultipartFile file, String userId, String fileType) throws Exception {
-        // Generate unique object name: userId/fileType/UUID-originalFilename
-        String objectName = String.format("%s/%s/%s-%s", 
-            userId, 
-            fileType, 
-            UUID.randomUUID().toString(), 
-            file.getOriginalFilename()
-        );
+        String objectName = createObjectName(userId, fileType, file.getOriginalFilename());
+        String bucketName = bucketRegistry.bucketFor(fileType);
 
-        // Check if bucket exists, create if not
-        boolean found = minioClient.bucketExists(
-            BucketExistsArgs.builder()
-                .bucket(bucketName)
-                .build()
+        // Buckets are provisioned at startup, so this is normally an in-memory check
+        bucketRegistry.ensureBucket(bucketName);
+
+        // Get input stream from the multipart file
+        try (InputStream inputStream = file.getInputStream()) {
+            if (file.getSize() >= multipartThreshold.toBytes()) {
+                // Large files are split into parts and uploaded concurrently
+                multipartUploadEngine.upload(bucketName, objectName, inputStream, file.getSize(), file.getContentType());
+            } else {
+                // Upload file to MinIO in a single request
+                minioClient.putObject(
+                    PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .stream(inputStream, file.getSize(), -1) // Use actual file size
+                        .contentType(file.getContentType())
+                        .build()
+                );
+            }
+        } catch (ErrorResponseException e) {
+            // The bucket was removed behind our back - verify it again on the next upload
+            if ("NoSuchBucket".equals(e.errorResponse().code())) {
+                bucketRegistry.invalidate(bucketName);
+            }
+            throw e;
+        }
+
+        return objectName; // Return the generated object name
+    }
+
+    /**
+     * Generates a unique object name for a new file
+     * Format: userId/fileType/UUID-originalFilename
+     */
+    public String createObjectName(String userId, String fileType, String originalFilename) {
+        return String.format("%s/%s/%s-%s",
+            userId,
+            fileType,
+            UUID.randomUUID().toString(),
+            originalFilename
         );
-        
-        if (!found) {
-            // Create bucket if it doesn't exist
-            minioClient.makeBucket(
-                MakeBucketArgs.builder()
-                    .bucket(bucketName)
+    }
+
+    /**
+     * Reads the metadata of a stored file (size, ETag, content type, last modified)
+     * Returns null if the file does not exist
+     */
+    public StatObjectResponse statFile(String objectName) throws Exception {
+        try {
+            return minioClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(bucketRegistry.bucketForObject(objectName))
+                    .object(objectName)
                     .build()
             );
+        } catch (ErrorResponseException e) {
+            String code = e.errorResponse().code();
+            if ("NoSuchKey".equals(code) || "NoSuchObject".equals(code) || "NoSuchBucket".equals(code)) {
+                return null;
+            }
+            throw e;
         }
+    }
 
-        // Get input stream from the multipart file
-        InputStream inputStream = file.getInputStream();
-        
-        // Upload file to MinIO
-        minioClient.putObject(
-            PutObjectArgs.builder()
-                .bucket(bucketName)
+    /**
+     * Opens a byte range of a stored file for streaming
+     * The caller must close the returned stream
+     */
+    public InputStream openFile(String objectName, long offset, long length) throws Exception {
+        return minioClient.getObject(
+            GetObjectArgs.builder()
+                .bucket(bucketRegistry.bucketForObject(objectName))
                 .object(objectName)
-                .stream(inputStream, file.getSize(), -1) // Use actual file size
-                .contentType(file.getContentType())
+                .offset(offset)
+                .length(length)
                 .build()
         );
-
-        // Close the input stream
-        inputStream.close();
-
-        return objectName; // Return the generated object name
     }
 
     /**
@@ -82,9 +129,9 @@ public class FileStorageService {
         // Delete file from MinIO
         minioClient.removeObject(
             RemoveObjectArgs.builder()
-                .bucket(bucketName)
+                .bucket(bucketRegistry.bucketForObject(objectName))
                 .object(objectName)
                 .build()
         );
     }
-}
\ No newline at end of file
+}
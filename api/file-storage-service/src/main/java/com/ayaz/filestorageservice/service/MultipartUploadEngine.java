@@ -0,0 +1,223 @@
+package com.ayaz.filestorageservice.service;
+
+import com.ayaz.filestorageservice.client.MultipartMinioClient;
+import com.ayaz.filestorageservice.resilience.RequestDeadline;
+import io.minio.messages.Part;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uploads large objects to MinIO as parallel multipart uploads
+ *
+ * The input stream is cut into fixed-size parts which are uploaded concurrently on a
+ * bounded executor, each with its own retry loop. Every upload owns at most
+ * part-concurrency part buffers, so memory per upload is bounded by
+ * (parts in flight x part size) regardless of the file size.
+ */
+@Component
+public class MultipartUploadEngine {
+
+    // S3 limits - every part except the last must be at least 5 MiB, at most 5 GiB and at most 10000 parts
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    // S3 limit on the size of one object (5 TiB)
+    public static final long MAX_OBJECT_SIZE = 5L * 1024 * 1024 * 1024 * 1024;
+
+    private final MultipartMinioClient client;
+    private final ExecutorService executor;
+    private final long partSize;
+    private final int partConcurrency;
+    private final int maxPartRetries;
+
+    public MultipartUploadEngine(
+            MultipartMinioClient client,
+            @Value("${minio.upload.part-size:16MB}") DataSize partSize,
+            @Value("${minio.upload.part-concurrency:4}") int partConcurrency,
+            @Value("${minio.upload.max-part-retries:3}") int maxPartRetries,
+            @Value("${minio.upload.max-threads:16}") int maxThreads) {
+        this.client = client;
+        this.partSize = Math.max(partSize.toBytes(), MIN_PART_SIZE);
+        this.partConcurrency = partConcurrency;
+        this.maxPartRetries = maxPartRetries;
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new UploadThreadFactory());
+    }
+
+    /**
+     * Uploads the stream as a multipart object
+     * Size may be -1 when unknown; the stream is then read until it ends
+     * Aborts the multipart upload if any part fails after its retries
+     */
+    public void upload(String bucket, String objectName, InputStream input, long size, String contentType)
+            throws Exception {
+        String uploadId = RequestDeadline.await(client.createMultipartUpload(bucket, objectName, contentType))
+                .result().uploadId();
+
+        try {
+            List<Part> parts = uploadParts(bucket, objectName, uploadId, input, partSizeFor(size));
+            RequestDeadline.await(client.completeMultipartUpload(bucket, objectName, uploadId, parts.toArray(new Part[0])));
+        } catch (Exception e) {
+            abortQuietly(bucket, objectName, uploadId);
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads one part with retries, resending the same bytes on each attempt
+     * On a request thread no attempt runs past the request deadline, and no retry is started
+     * once the backoff alone would reach it
+     * Returns the stored part with its ETag
+     */
+    public Part uploadPart(String bucket, String objectName, String uploadId,
+                           int partNumber, byte[] data, int length) throws Exception {
+        Exception lastFailure = null;
+        for (int attempt = 0; attempt <= maxPartRetries; attempt++) {
+            if (attempt > 0) {
+                Long remaining = RequestDeadline.remainingMillis();
+                if (remaining != null && remaining <= 100L << attempt) {
+                    break;
+                }
+                // Exponential backoff: 200ms, 400ms, 800ms ...
+                Thread.sleep(100L << attempt);
+            }
+            try {
+                String etag = RequestDeadline.await(
+                        client.uploadPart(bucket, objectName, data, length, uploadId, partNumber)).etag();
+                return new Part(partNumber, etag);
+            } catch (ExecutionException e) {
+                lastFailure = e.getCause() instanceof Exception cause ? cause : e;
+            } catch (IOException e) {
+                lastFailure = e;
+            }
+        }
+        throw lastFailure;
+    }
+
+    /**
+     * Reads the stream part by part and uploads the parts concurrently
+     * A part buffer is taken from the upload's pool before reading and returned once
+     * the part is stored, which blocks the reader while all buffers are in flight
+     */
+    private List<Part> uploadParts(String bucket, String objectName, String uploadId,
+                                   InputStream input, long partSize) throws Exception {
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(partConcurrency);
+        AtomicInteger allocated = new AtomicInteger();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        List<CompletableFuture<Part>> futures = new ArrayList<>();
+
+        int partNumber = 0;
+        while (failure.get() == null) {
+            byte[] buffer = buffers.poll();
+            if (buffer == null) {
+                buffer = allocated.get() < partConcurrency
+                        ? allocate(allocated, (int) partSize)
+                        : buffers.take();
+            }
+
+            int length = input.readNBytes(buffer, 0, (int) partSize);
+            if (length == 0 && partNumber > 0) {
+                buffers.offer(buffer);
+                break;
+            }
+
+            int number = ++partNumber;
+            byte[] data = buffer;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return uploadPart(bucket, objectName, uploadId, number, data, length);
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                    throw new IllegalStateException("Part " + number + " failed", e);
+                } finally {
+                    buffers.offer(data);
+                }
+            }, executor));
+
+            if (length < partSize) {
+                break;
+            }
+        }
+
+        List<Part> parts = new ArrayList<>(futures.size());
+        for (CompletableFuture<Part> future : futures) {
+            try {
+                parts.add(RequestDeadline.await(future));
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        parts.sort(Comparator.comparingInt(Part::partNumber));
+        return parts;
+    }
+
+    /**
+     * Returns the part size to use for a file of the given size
+     * Grows the configured part size for very large files so the upload stays within 10000 parts,
+     * but never beyond the 5 GiB S3 part limit
+     */
+    public long partSizeFor(long size) {
+        if (size <= 0) {
+            return partSize;
+        }
+        long minimum = (size + MAX_PARTS - 1) / MAX_PARTS;
+        return Math.min(MAX_PART_SIZE, Math.max(partSize, minimum));
+    }
+
+    // Allocates a new part buffer and counts it against the upload's buffer limit
+    private static byte[] allocate(AtomicInteger allocated, int size) {
+        allocated.incrementAndGet();
+        return new byte[size];
+    }
+
+    // Best-effort abort so failed uploads do not leave orphaned parts in the bucket
+    private void abortQuietly(String bucket, String objectName, String uploadId) {
+        try {
+            client.abortMultipartUpload(bucket, objectName, uploadId).get();
+        } catch (Exception ignored) {
+            // MinIO eventually removes stale multipart uploads on its own
+        }
+    }
+
+    /**
+     * Stops the part upload threads when the application shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Names the part upload threads so they are easy to find in thread dumps
+    private static class UploadThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "minio-part-upload-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ayaz.filestorageservice.service;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.http.Method;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service class for issuing presigned MinIO URLs
+ *
+ * Clients upload and download media directly against MinIO with these URLs, so the bytes
+ * never pass through the gateway or this service. Download URLs are cached per object
+ * and re-used while at least half of their lifetime remains, so hot objects are not
+ * re-signed on every read.
+ */
+@Service
+public class PresignedUrlService {
+
+    private final MinioClient presignMinioClient;
+    private final BucketRegistry bucketRegistry;
+    private final Duration uploadExpiry;
+    private final Duration downloadExpiry;
+    private final int cacheSize;
+
+    // LRU cache of issued download URLs, keyed by object name
+    private final Map<String, PresignedUrl> downloadUrls;
+
+    public PresignedUrlService(
+            @Qualifier("presignMinioClient") MinioClient presignMinioClient,
+            BucketRegistry bucketRegistry,
+            @Value("${minio.presign.upload-expiry:15m}") Duration uploadExpiry,
+            @Value("${minio.presign.download-expiry:1h}") Duration downloadExpiry,
+            @Value("${minio.presign.cache-size:10000}") int cacheSize) {
+        this.presignMinioClient = presignMinioClient;
+        this.bucketRegistry = bucketRegistry;
+        this.uploadExpiry = uploadExpiry;
+        this.downloadExpiry = downloadExpiry;
+        this.cacheSize = cacheSize;
+        this.downloadUrls = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PresignedUrl> eldest) {
+                return size() > PresignedUrlService.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Issues a presigned PUT URL for uploading a new object
+     */
+    public PresignedUrl presignUpload(String objectName, String fileType) throws Exception {
+        String bucket = bucketRegistry.bucketFor(fileType);
+        bucketRegistry.ensureBucket(bucket);
+        return sign(Method.PUT, bucket, objectName, uploadExpiry);
+    }
+
+    /**
+     * Returns a presigned GET URL for an object
+     * A cached URL is returned while at least half of its lifetime remains
+     */
+    public PresignedUrl presignDownload(String objectName) throws Exception {
+        long now = System.currentTimeMillis();
+        synchronized (downloadUrls) {
+            PresignedUrl cached = downloadUrls.get(objectName);
+            if (cached != null && cached.getExpiresAt() - now >= downloadExpiry.toMillis() / 2) {
+                return cached;
+            }
+        }
+
+        PresignedUrl url = sign(Method.GET, bucketRegistry.bucketForObject(objectName), objectName, downloadExpiry);
+        synchronized (downloadUrls) {
+            downloadUrls.put(objectName, url);
+        }
+        return url;
+    }
+
+    /**
+     * Drops the cached download URL of an object, e.g. after it was replaced or deleted
+     */
+    public void evict(String objectName) {
+        synchronized (downloadUrls) {
+            downloadUrls.remove(objectName);
+        }
+    }
+
+    // Signs a URL locally with the presign client
+    private PresignedUrl sign(Method method, String bucket, String objectName, Duration expiry) throws Exception {
+        long expiresAt = System.currentTimeMillis() + expiry.toMillis();
+        String url = presignMinioClient.getPresignedObjectUrl(
+            GetPresignedObjectUrlArgs.builder()
+                .method(method)
+                .bucket(bucket)
+                .object(objectName)
+                .expiry((int) expiry.toSeconds())
+                .build()
+        );
+        return new PresignedUrl(url, expiresAt);
+    }
+
+    /**
+     * A presigned URL and the time (epoch millis) it stops being valid
+     */
+    public static class PresignedUrl {
+        private final String url;
+        private final long expiresAt;
+
+        public PresignedUrl(String url, long expiresAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
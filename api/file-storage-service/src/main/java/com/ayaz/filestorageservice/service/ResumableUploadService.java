@@ -0,0 +1,256 @@
+package com.ayaz.filestorageservice.service;
+
+import com.ayaz.filestorageservice.client.MultipartMinioClient;
+import com.ayaz.filestorageservice.model.UploadSession;
+import com.ayaz.filestorageservice.resilience.RequestDeadline;
+import io.minio.ListPartsResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Part;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for resumable chunked uploads
+ *
+ * Each chunk maps to exactly one part of an S3 multipart upload: the chunk at offset N
+ * is part N / partSize + 1. MinIO keeps the stored parts, so a client that lost its
+ * connection asks for the status and only re-sends the parts that are missing.
+ *
+ * Chunks are buffered in memory before they go to MinIO, so all chunk buffers together are
+ * bounded by minio.upload.chunk-memory; a chunk that cannot get its share within chunk-wait
+ * is turned away and re-sent by the client.
+ */
+@Service
+public class ResumableUploadService {
+
+    private final MultipartMinioClient multipartMinioClient;
+    private final MultipartUploadEngine multipartUploadEngine;
+    private final UploadSessionStore sessionStore;
+    private final FileStorageService fileStorageService;
+    private final BucketRegistry bucketRegistry;
+    // Chunk buffer memory still free, one permit per KiB
+    private final Semaphore chunkMemory;
+    private final long chunkMemoryBytes;
+    private final long chunkWaitMs;
+
+    public ResumableUploadService(MultipartMinioClient multipartMinioClient,
+                                  MultipartUploadEngine multipartUploadEngine,
+                                  UploadSessionStore sessionStore,
+                                  FileStorageService fileStorageService,
+                                  BucketRegistry bucketRegistry,
+                                  @Value("${minio.upload.chunk-memory:1GB}") DataSize chunkMemory,
+                                  @Value("${minio.upload.chunk-wait:10s}") Duration chunkWait) {
+        this.multipartMinioClient = multipartMinioClient;
+        this.multipartUploadEngine = multipartUploadEngine;
+        this.sessionStore = sessionStore;
+        this.fileStorageService = fileStorageService;
+        this.bucketRegistry = bucketRegistry;
+        this.chunkMemoryBytes = Math.min(chunkMemory.toBytes(), Integer.MAX_VALUE * 1024L);
+        this.chunkMemory = new Semaphore((int) (chunkMemoryBytes / 1024), true);
+        this.chunkWaitMs = chunkWait.toMillis();
+    }
+
+    /**
+     * Starts a resumable upload
+     * Creates the multipart upload in MinIO and persists the session
+     */
+    public UploadSession init(String userId, String fileType, String fileName, String contentType, long size)
+            throws Exception {
+        if (size < 0) {
+            throw new IllegalArgumentException("File size must not be negative");
+        }
+        if (size > MultipartUploadEngine.MAX_OBJECT_SIZE) {
+            throw new IllegalArgumentException("File size must not exceed " + MultipartUploadEngine.MAX_OBJECT_SIZE + " bytes");
+        }
+        long partSize = multipartUploadEngine.partSizeFor(size);
+        if (partSize > chunkMemoryBytes || partSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("File size needs chunks of " + partSize
+                    + " bytes, larger than this service accepts");
+        }
+
+        String bucketName = bucketRegistry.bucketFor(fileType);
+        bucketRegistry.ensureBucket(bucketName);
+
+        UploadSession session = new UploadSession();
+        session.setSessionId(UUID.randomUUID().toString());
+        session.setBucket(bucketName);
+        session.setObjectName(fileStorageService.createObjectName(userId, fileType, fileName));
+        session.setUserId(userId);
+        session.setFileType(fileType);
+        session.setContentType(contentType);
+        session.setSize(size);
+        session.setPartSize(partSize);
+        session.setCreatedAt(System.currentTimeMillis());
+
+        String uploadId = RequestDeadline.await(multipartMinioClient
+                .createMultipartUpload(session.getBucket(), session.getObjectName(), contentType))
+                .result().uploadId();
+        session.setUploadId(uploadId);
+
+        sessionStore.save(session);
+        return session;
+    }
+
+    /**
+     * Finds an upload session by id
+     * Returns null if it does not exist or was already completed
+     */
+    public UploadSession find(String sessionId) throws Exception {
+        return sessionStore.find(sessionId);
+    }
+
+    /**
+     * Stores one chunk as the multipart part that starts at the given offset
+     * The chunk must start on a part boundary and be exactly one part long
+     * (the last part may be shorter). Re-sending a stored part overwrites it.
+     * Returns the offset just after the chunk
+     */
+    public long writeChunk(UploadSession session, long offset, InputStream body, long contentLength)
+            throws Exception {
+        long partSize = session.getPartSize();
+        if (offset < 0 || offset % partSize != 0 || (offset >= session.getSize() && offset > 0)) {
+            throw new IllegalArgumentException("Offset must be a multiple of " + partSize
+                    + " below the file size " + session.getSize());
+        }
+
+        // init keeps the part size within the chunk memory, so this always fits an int
+        int expected = (int) Math.min(partSize, session.getSize() - offset);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new IllegalArgumentException("Chunk at offset " + offset + " must be " + expected
+                    + " bytes but was " + contentLength);
+        }
+
+        // Reserve the buffer's share of the chunk memory before allocating it
+        int permits = Math.max(1, (expected + 1023) / 1024);
+        Long remaining = RequestDeadline.remainingMillis();
+        long wait = remaining != null ? Math.max(0, Math.min(chunkWaitMs, remaining)) : chunkWaitMs;
+        if (!chunkMemory.tryAcquire(permits, wait, TimeUnit.MILLISECONDS)) {
+            throw new UploadBusyException("Too many chunks in progress, retry the chunk at offset " + offset);
+        }
+        try {
+            // One part buffer per chunk - the chunk is never spooled to disk
+            byte[] buffer = new byte[expected];
+            int read = body.readNBytes(buffer, 0, expected);
+            if (read != expected) {
+                throw new IllegalArgumentException("Chunk at offset " + offset + " ended after " + read
+                        + " of " + expected + " bytes");
+            }
+
+            int partNumber = (int) (offset / partSize) + 1;
+            multipartUploadEngine.uploadPart(session.getBucket(), session.getObjectName(), session.getUploadId(),
+                    partNumber, buffer, expected);
+            return offset + expected;
+        } finally {
+            chunkMemory.release(permits);
+        }
+    }
+
+    /**
+     * Returns the progress of an upload based on the parts stored in MinIO
+     * nextOffset is the first offset the client still has to send
+     */
+    public Map<String, Object> status(UploadSession session) throws Exception {
+        List<Part> parts = listParts(session);
+        boolean[] stored = new boolean[session.getTotalParts() + 1];
+        long receivedBytes = 0;
+        List<Integer> partNumbers = new ArrayList<>(parts.size());
+        for (Part part : parts) {
+            if (part.partNumber() < stored.length) {
+                stored[part.partNumber()] = true;
+            }
+            receivedBytes += part.partSize();
+            partNumbers.add(part.partNumber());
+        }
+
+        int firstMissing = 1;
+        while (firstMissing <= session.getTotalParts() && stored[firstMissing]) {
+            firstMissing++;
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("sessionId", session.getSessionId());
+        status.put("objectName", session.getObjectName());
+        status.put("size", session.getSize());
+        status.put("partSize", session.getPartSize());
+        status.put("totalParts", session.getTotalParts());
+        status.put("receivedParts", partNumbers);
+        status.put("receivedBytes", receivedBytes);
+        status.put("nextOffset", Math.min((firstMissing - 1) * session.getPartSize(), session.getSize()));
+        status.put("complete", firstMissing > session.getTotalParts());
+        return status;
+    }
+
+    /**
+     * Completes the upload once every part is stored
+     * Returns the object name of the assembled file
+     */
+    public String complete(UploadSession session) throws Exception {
+        List<Part> parts = listParts(session);
+        if (parts.size() != session.getTotalParts()) {
+            throw new IllegalStateException("Upload has " + parts.size() + " of "
+                    + session.getTotalParts() + " parts");
+        }
+
+        Part[] completed = new Part[parts.size()];
+        for (int i = 0; i < parts.size(); i++) {
+            completed[i] = new Part(parts.get(i).partNumber(), parts.get(i).etag());
+        }
+        RequestDeadline.await(multipartMinioClient.completeMultipartUpload(session.getBucket(), session.getObjectName(),
+                session.getUploadId(), completed));
+        sessionStore.delete(session);
+        return session.getObjectName();
+    }
+
+    /**
+     * Aborts the upload and discards every stored part
+     */
+    public void abort(UploadSession session) throws Exception {
+        RequestDeadline.await(multipartMinioClient.abortMultipartUpload(session.getBucket(), session.getObjectName(),
+                session.getUploadId()));
+        sessionStore.delete(session);
+    }
+
+    /**
+     * Aborts a session that was abandoned, tolerating a multipart upload that is already gone
+     * (completed, aborted or expired by another instance)
+     */
+    public void expire(UploadSession session) throws Exception {
+        try {
+            multipartMinioClient.abortMultipartUpload(session.getBucket(), session.getObjectName(),
+                    session.getUploadId()).get();
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof ErrorResponseException cause)
+                    || !"NoSuchUpload".equals(cause.errorResponse().code())) {
+                throw e;
+            }
+        }
+        sessionStore.delete(session);
+    }
+
+    // Lists every stored part, following the listing pages, sorted by part number
+    private List<Part> listParts(UploadSession session) throws Exception {
+        List<Part> parts = new ArrayList<>();
+        int marker = 0;
+        while (true) {
+            ListPartsResponse response = RequestDeadline.await(multipartMinioClient
+                    .listParts(session.getBucket(), session.getObjectName(), session.getUploadId(), marker));
+            parts.addAll(response.result().partList());
+            if (!response.result().isTruncated()) {
+                return parts;
+            }
+            marker = response.result().nextPartNumberMarker();
+        }
+    }
+}
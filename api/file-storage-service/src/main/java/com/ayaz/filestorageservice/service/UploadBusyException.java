@@ -0,0 +1,12 @@
+package com.ayaz.filestorageservice.service;
+
+/**
+ * Thrown when the chunk buffer memory stays fully in use for longer than minio.upload.chunk-wait
+ * Callers should answer 503 with Retry-After so the client re-sends the chunk later
+ */
+public class UploadBusyException extends RuntimeException {
+
+    public UploadBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ayaz.filestorageservice.service;
+
+import com.ayaz.filestorageservice.model.UploadSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Item;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persists resumable upload sessions
+ * Sessions are stored as small JSON objects in the default bucket and cached in memory,
+ * so an upload survives restarts and can be resumed through any service instance
+ */
+@Component
+public class UploadSessionStore {
+
+    private static final String SESSION_PREFIX = ".upload-sessions/";
+    // The cache is only a read-through copy of the store, so it is simply dropped when full
+    private static final int MAX_CACHED_SESSIONS = 10_000;
+
+    private final MinioClient minioClient;
+    private final ObjectMapper objectMapper;
+    private final BucketRegistry bucketRegistry;
+    private final Map<String, UploadSession> cache = new ConcurrentHashMap<>();
+
+    @Value("${minio.bucket-name}")
+    private String bucketName;
+
+    public UploadSessionStore(MinioClient minioClient, ObjectMapper objectMapper, BucketRegistry bucketRegistry) {
+        this.minioClient = minioClient;
+        this.objectMapper = objectMapper;
+        this.bucketRegistry = bucketRegistry;
+    }
+
+    /**
+     * Saves a new session
+     */
+    public void save(UploadSession session) throws Exception {
+        bucketRegistry.ensureBucket(bucketName);
+        byte[] json = objectMapper.writeValueAsBytes(session);
+        minioClient.putObject(
+            PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(SESSION_PREFIX + session.getSessionId() + ".json")
+                .stream(new ByteArrayInputStream(json), json.length, -1)
+                .contentType("application/json")
+                .build()
+        );
+        remember(session);
+    }
+
+    /**
+     * Finds a session by id
+     * Returns null if the session does not exist
+     */
+    public UploadSession find(String sessionId) throws Exception {
+        UploadSession cached = cache.get(sessionId);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(SESSION_PREFIX + sessionId + ".json")
+                    .build())) {
+            UploadSession session = objectMapper.readValue(response, UploadSession.class);
+            remember(session);
+            return session;
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes a finished or aborted session
+     */
+    public void delete(UploadSession session) throws Exception {
+        cache.remove(session.getSessionId());
+        minioClient.removeObject(
+            RemoveObjectArgs.builder()
+                .bucket(bucketName)
+                .object(SESSION_PREFIX + session.getSessionId() + ".json")
+                .build()
+        );
+    }
+
+    /**
+     * Returns the ids of sessions whose state was written before the cutoff
+     * A session is written once when it starts, so this approximates its createdAt
+     */
+    public List<String> findIdsStoredBefore(Instant cutoff) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder()
+                    .bucket(bucketName)
+                    .prefix(SESSION_PREFIX)
+                    .build())) {
+            Item item = result.get();
+            String name = item.objectName();
+            if (name.endsWith(".json") && item.lastModified().toInstant().isBefore(cutoff)) {
+                ids.add(name.substring(SESSION_PREFIX.length(), name.length() - ".json".length()));
+            }
+        }
+        return ids;
+    }
+
+    // Adds a session to the in-memory cache
+    private void remember(UploadSession session) {
+        if (cache.size() >= MAX_CACHED_SESSIONS) {
+            cache.clear();
+        }
+        cache.put(session.getSessionId(), session);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ayaz.filestorageservice.service;
+
+import com.ayaz.filestorageservice.model.UploadSession;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cleans up resumable uploads that were never completed or aborted
+ *
+ * Every sweep-interval, sessions created more than session-ttl ago are aborted: the
+ * multipart upload and its stored parts are discarded and the session state is deleted.
+ * Several instances may sweep at once; a session already cleaned up by another instance
+ * is skipped.
+ */
+@Component
+public class UploadSessionSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionSweeper.class);
+
+    private final UploadSessionStore sessionStore;
+    private final ResumableUploadService resumableUploadService;
+    private final Duration sessionTtl;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "upload-session-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UploadSessionSweeper(UploadSessionStore sessionStore, ResumableUploadService resumableUploadService,
+                                @Value("${minio.upload.session-ttl:24h}") Duration sessionTtl,
+                                @Value("${minio.upload.session-sweep-interval:1h}") Duration interval) {
+        this.sessionStore = sessionStore;
+        this.resumableUploadService = resumableUploadService;
+        this.sessionTtl = sessionTtl;
+        this.interval = interval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sweep, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // Aborts every session created before now - session-ttl
+    private void sweep() {
+        Instant cutoff = Instant.now().minus(sessionTtl);
+        int expired = 0;
+        try {
+            for (String sessionId : sessionStore.findIdsStoredBefore(cutoff)) {
+                try {
+                    UploadSession session = sessionStore.find(sessionId);
+                    if (session != null && session.getCreatedAt() < cutoff.toEpochMilli()) {
+                        resumableUploadService.expire(session);
+                        expired++;
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to expire upload session {}: {}", sessionId, e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Upload session sweep failed: {}", e.getMessage());
+        }
+        if (expired > 0) {
+            log.info("Expired {} abandoned upload sessions", expired);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ayaz.userservice.config;
+
+import com.ayaz.userservice.resilience.DeadlineMongoDatabaseFactory;
+import com.mongodb.client.MongoClient;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * MongoDB configuration
+ * Replaces the auto-configured database factory with one that honours request deadlines
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoDatabaseFactory mongoDatabaseFactory(MongoClient mongoClient, MongoProperties properties) {
+        return new DeadlineMongoDatabaseFactory(mongoClient, properties.getMongoClientDatabase());
+    }
+}
@@ -0,0 +1,45 @@
+package com.ayaz.userservice.controller;
+
+import com.ayaz.userservice.service.HistoryIngestor;
+import com.ayaz.userservice.service.UserProfileCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Internal endpoints for operating the user service
+ * Not routed by the API Gateway, so only reachable from inside the network
+ */
+@RestController
+@RequestMapping("/internal/api/users")
+public class InternalUserController {
+
+    private final UserProfileCache profileCache;
+    private final HistoryIngestor historyIngestor;
+
+    public InternalUserController(UserProfileCache profileCache, HistoryIngestor historyIngestor) {
+        this.profileCache = profileCache;
+        this.historyIngestor = historyIngestor;
+    }
+
+    /**
+     * Profile cache metrics endpoint
+     * Returns size, hits, misses, loads and evictions for the id and username caches
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Map<String, Object>>> cacheStats() {
+        return ResponseEntity.ok(profileCache.getStats());
+    }
+
+    /**
+     * History ingestion metrics endpoint
+     * Returns queue depth, event lag and flush batch sizes
+     */
+    @GetMapping("/history/ingest")
+    public ResponseEntity<Map<String, Object>> historyIngestStats() {
+        return ResponseEntity.ok(historyIngestor.getStats());
+    }
+}
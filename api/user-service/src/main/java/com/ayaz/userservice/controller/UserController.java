@@ -1,13 +1,35 @@
 package com.ayaz.userservice.controller;
 
+import com.ayaz.userservice.dto.UserBatchRequest;
+import com.ayaz.userservice.dto.UserPage;
+import com.ayaz.userservice.dto.UserView;
 import com.ayaz.userservice.model.User;
 import com.ayaz.userservice.repository.UserRepository;
+import com.ayaz.userservice.service.UserProfileCache;
+import com.ayaz.userservice.service.UserQueryService;
+import com.ayaz.userservice.service.UserUpdateService;
+import com.ayaz.userservice.service.VersionMismatchException;
+import com.ayaz.userservice.util.DuplicateKeys;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for user management operations
@@ -18,30 +40,117 @@ import java.util.Optional;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final UserProfileCache profileCache;
+    private final UserQueryService userQueryService;
+    private final UserUpdateService userUpdateService;
+    private final ObjectMapper objectMapper;
+    // How long shared caches such as the gateway may reuse a profile read
+    private final Duration profileMaxAge;
 
-    public UserController(UserRepository userRepository) {
+    // Page size bounds for the user listing
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Upper bound on ids or usernames in one batch lookup
+    private static final int MAX_BATCH_SIZE = 100;
+    // Tags profile reads and writes with the user, so the gateway drops the by-id and
+    // by-username copies of a profile together when it changes
+    private static final String CACHE_TAG = "Cache-Tag";
+
+    public UserController(UserRepository userRepository, UserProfileCache profileCache,
+                          UserQueryService userQueryService, UserUpdateService userUpdateService,
+                          ObjectMapper objectMapper,
+                          @Value("${user.http.profile-max-age:30s}") Duration profileMaxAge) {
         this.userRepository = userRepository;
+        this.profileCache = profileCache;
+        this.userQueryService = userQueryService;
+        this.userUpdateService = userUpdateService;
+        this.objectMapper = objectMapper;
+        this.profileMaxAge = profileMaxAge;
     }
 
     /**
-     * Gets all users from the database
-     * Returns a list of all users
+     * Gets one page of users ordered by ID
+     * Pass the returned nextCursor as after to get the next page; 400 if the cursor is invalid
+     * view=summary|profile|full or fields=a,b selects the returned fields (default profile)
      */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        try {
+            UserPage page = userQueryService.findPage(after, limit, UserView.resolve(view, fields));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Exports every user as newline-delimited JSON (one document per line)
+     * Documents are written as the database cursor returns them, so memory use stays flat
+     * Accepts the same view and fields parameters as the listing
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        Set<String> selected = resolveFields(view, fields);
+        StreamingResponseBody body = out -> userQueryService.streamAll(selected, user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Gets many users in one request, by ids or by usernames (not both)
+     * Items come back in request order with null for keys that were not found
+     * Accepts the same view and fields parameters as the single lookups
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getUsersBatch(
+            @RequestBody UserBatchRequest request,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byUsernames = request.getUsernames() != null && !request.getUsernames().isEmpty();
+        if (byIds == byUsernames) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Provide either ids or usernames"));
+        }
+        List<String> keys = byIds ? request.getIds() : request.getUsernames();
+        if (keys.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BATCH_SIZE + " users per request"));
+        }
+
+        Set<String> selected = resolveFields(view, fields);
+        return ResponseEntity.ok(byIds
+                ? userQueryService.findAllByIds(keys, selected)
+                : userQueryService.findAllByUsernames(keys, selected));
     }
 
     /**
      * Gets a specific user by their ID
-     * Returns the user if found, 404 if not found
+     * Returns the user if found, 404 if not found; If-None-Match with the current ETag gives 304
+     * view=summary|profile|full or fields=a,b selects the returned fields (default profile)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable String id) {
-        Optional<User> user = userRepository.findById(id);
-        if (user.isPresent()) {
-            return ResponseEntity.ok(user.get());
+    public ResponseEntity<User> getUserById(
+            @PathVariable String id,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        Set<String> selected = resolveFields(view, fields);
+        User user = lookup(selected, () -> profileCache.findById(id), () -> userQueryService.findById(id, selected));
+        if (user != null) {
+            return profileResponse(user);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -49,13 +158,19 @@ public class UserController {
 
     /**
      * Gets a user by their username
-     * Returns the user if found, 404 if not found
+     * Returns the user if found, 404 if not found; If-None-Match with the current ETag gives 304
+     * view=summary|profile|full or fields=a,b selects the returned fields (default profile)
      */
     @GetMapping("/username/{username}")
-    public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
-        User user = userRepository.findByUsername(username);
+    public ResponseEntity<User> getUserByUsername(
+            @PathVariable String username,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        Set<String> selected = resolveFields(view, fields);
+        User user = lookup(selected, () -> profileCache.findByUsername(username),
+                () -> userQueryService.findByUsername(username, selected));
         if (user != null) {
-            return ResponseEntity.ok(user);
+            return profileResponse(user);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -63,53 +178,48 @@ public class UserController {
 
     /**
      * Creates a new user
-     * Returns the created user with 201 status
+     * Returns the created user with 201 status, 409 if the username or email is taken
      */
     @PostMapping
-    public ResponseEntity<User> createUser(@RequestBody User user) {
-        // Check if username already exists
-        if (userRepository.existsByUsername(user.getUsername())) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    public ResponseEntity<?> createUser(@RequestBody User user) {
+        try {
+            // Single insert - the unique username and email indexes reject duplicates
+            user.setVersion(0L);
+            User savedUser = userRepository.insert(user);
+            // Drop any cached "not found" entries for the new id and username
+            profileCache.invalidate(savedUser);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", DuplicateKeys.messageFor(e)));
         }
-        
-        // Check if email already exists
-        if (userRepository.existsByEmail(user.getEmail())) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
-        
-        User savedUser = userRepository.save(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
     }
 
     /**
      * Updates an existing user
-     * Returns the updated user if successful, 404 if user not found
+     * Returns the updated user if successful, 404 if user not found, 409 if the new email is taken
      */
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable String id, @RequestBody User updatedUser) {
-        Optional<User> existingUser = userRepository.findById(id);
-        if (!existingUser.isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        User user = existingUser.get();
-        
-        // Update fields if they are provided
-        if (updatedUser.getFullName() != null) {
-            user.setFullName(updatedUser.getFullName());
-        }
-        if (updatedUser.getEmail() != null) {
-            user.setEmail(updatedUser.getEmail());
-        }
-        if (updatedUser.getAvatar() != null) {
-            user.setAvatar(updatedUser.getAvatar());
-        }
-        if (updatedUser.getCoverImage() != null) {
-            user.setCoverImage(updatedUser.getCoverImage());
+    public ResponseEntity<?> updateUser(@PathVariable String id, @RequestBody User updatedUser) {
+        return applyUpdate(id, updatedUser, null);
+    }
+
+    /**
+     * Partially updates a user with a single atomic field-level update
+     * Send If-Match with the user's version (from the ETag) to reject the edit with 412 if the
+     * user changed in the meantime; returns 404 if user not found, 409 if the new email is taken
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchUser(
+            @PathVariable String id,
+            @RequestBody User changes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = parseVersion(ifMatch);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "If-Match must be a user version, e.g. \"3\""));
         }
-        
-        User savedUser = userRepository.save(user);
-        return ResponseEntity.ok(savedUser);
+        return applyUpdate(id, changes, expectedVersion);
     }
 
     /**
@@ -118,11 +228,86 @@ public class UserController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable String id) {
-        if (!userRepository.existsById(id)) {
+        Optional<User> existingUser = userRepository.findById(id);
+        if (!existingUser.isPresent()) {
             return ResponseEntity.notFound().build();
         }
         
         userRepository.deleteById(id);
-        return ResponseEntity.noContent().build();
+        profileCache.invalidate(existingUser.get());
+        return ResponseEntity.noContent().header(CACHE_TAG, cacheTag(id)).build();
+    }
+
+    /**
+     * Resolves the view and fields parameters, answering 400 for unknown names
+     */
+    private static Set<String> resolveFields(String view, String fields) {
+        try {
+            return UserView.resolve(view, fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Serves views that fit in the cached profile from the near-cache and trims them to the
+     * selected fields; wider views are read from MongoDB with a projection
+     */
+    private static User lookup(Set<String> fields, Supplier<User> cached, Supplier<User> uncached) {
+        if (UserView.PROFILE.getFields().containsAll(fields)) {
+            User user = cached.get();
+            return user == null ? null : UserView.project(user, fields);
+        }
+        return uncached.get();
+    }
+
+    /**
+     * Builds a profile read response that shared caches may store for profile-max-age
+     * The user's version is the ETag, so Spring answers a matching If-None-Match with 304
+     */
+    private ResponseEntity<User> profileResponse(User user) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(profileMaxAge).cachePublic())
+                .header(CACHE_TAG, cacheTag(user.getId()));
+        if (user.getVersion() != null) {
+            builder.eTag(String.valueOf(user.getVersion()));
+        }
+        return builder.body(user);
+    }
+
+    /**
+     * Runs a profile update and maps its outcome to a response carrying the new version as ETag
+     */
+    private ResponseEntity<?> applyUpdate(String id, User changes, Long expectedVersion) {
+        try {
+            User user = userUpdateService.update(id, changes, expectedVersion);
+            if (user == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok().eTag(String.valueOf(user.getVersion()))
+                    .header(CACHE_TAG, cacheTag(id)).body(user);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (VersionMismatchException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("error", e.getMessage()));
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", DuplicateKeys.messageFor(e)));
+        }
+    }
+
+    private static String cacheTag(String userId) {
+        return "user:" + userId;
+    }
+
+    // Reads the version from an If-Match value such as "3" or W/"3"; null or * means no check
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        return Long.parseLong(value.replace("\"", ""));
     }
-}
\ No newline at end of file
+}
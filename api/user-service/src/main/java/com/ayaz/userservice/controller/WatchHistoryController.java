@@ -0,0 +1,118 @@
+package com.ayaz.userservice.controller;
+
+import com.ayaz.userservice.dto.HistoryEvent;
+import com.ayaz.userservice.dto.HistoryPage;
+import com.ayaz.userservice.service.HistoryIngestor;
+import com.ayaz.userservice.service.WatchHistoryService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for a user's watch history
+ * History is stored separately from the user profile, in time-bucketed documents.
+ * Recorded views are queued and written in batches, so recording never waits on MongoDB.
+ */
+@RestController
+@RequestMapping("/api/users")
+public class WatchHistoryController {
+
+    // Page size bounds for history reads
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Upper bound on events accepted by one batch request
+    private static final int MAX_EVENTS_PER_REQUEST = 1000;
+
+    private final WatchHistoryService watchHistoryService;
+    private final HistoryIngestor historyIngestor;
+
+    public WatchHistoryController(WatchHistoryService watchHistoryService, HistoryIngestor historyIngestor) {
+        this.watchHistoryService = watchHistoryService;
+        this.historyIngestor = historyIngestor;
+    }
+
+    /**
+     * Records that the user watched a video
+     * Returns 202 Accepted once queued, 400 if videoId is missing, 503 if the queue is full
+     */
+    @PostMapping("/{userId}/history")
+    public ResponseEntity<?> addToHistory(@PathVariable String userId, @RequestBody Map<String, String> body) {
+        String videoId = body.get("videoId");
+        if (videoId == null || videoId.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "videoId is required"));
+        }
+        if (!historyIngestor.offer(new HistoryEvent(userId, videoId, null))) {
+            return queueFull(0);
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Records a batch of history events for any number of users
+     * Events are queued in order; on 503 the first "accepted" events were queued and the rest should be retried
+     */
+    @PostMapping("/history/events")
+    public ResponseEntity<?> ingestEvents(@RequestBody List<HistoryEvent> events) {
+        if (events.size() > MAX_EVENTS_PER_REQUEST) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_EVENTS_PER_REQUEST + " events per request"));
+        }
+        for (HistoryEvent event : events) {
+            if (event.getUserId() == null || event.getVideoId() == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "userId and videoId are required for every event"));
+            }
+        }
+
+        int accepted = 0;
+        for (HistoryEvent event : events) {
+            if (!historyIngestor.offer(event)) {
+                return queueFull(accepted);
+            }
+            accepted++;
+        }
+        return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+    }
+
+    /**
+     * Gets one page of the user's watch history, newest first
+     * Pass the returned nextCursor as before to get older entries; 400 if the cursor is invalid
+     */
+    @GetMapping("/{userId}/history")
+    public ResponseEntity<?> getHistory(
+            @PathVariable String userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        try {
+            HistoryPage page = watchHistoryService.findPage(userId, before, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Clears the user's watch history
+     * Returns 204 No Content
+     */
+    @DeleteMapping("/{userId}/history")
+    public ResponseEntity<Void> clearHistory(@PathVariable String userId) {
+        watchHistoryService.clear(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Back-pressure response sent while the ingestion queue is full
+     */
+    private ResponseEntity<Map<String, Object>> queueFull(int accepted) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "History ingestion queue is full", "accepted", accepted));
+    }
+}
@@ -0,0 +1,46 @@
+package com.ayaz.userservice.dto;
+
+import java.time.Instant;
+
+/**
+ * A watched-video event accepted by the history ingestion endpoints
+ * watchedAt is optional and defaults to the time the event was received
+ */
+public class HistoryEvent {
+    private String userId;
+    private String videoId;
+    private Instant watchedAt;
+
+    public HistoryEvent() {
+    }
+
+    public HistoryEvent(String userId, String videoId, Instant watchedAt) {
+        this.userId = userId;
+        this.videoId = videoId;
+        this.watchedAt = watchedAt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(String videoId) {
+        this.videoId = videoId;
+    }
+
+    public Instant getWatchedAt() {
+        return watchedAt;
+    }
+
+    public void setWatchedAt(Instant watchedAt) {
+        this.watchedAt = watchedAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ayaz.userservice.dto;
+
+import com.ayaz.userservice.model.HistoryEntry;
+
+import java.util.List;
+
+/**
+ * One page of a user's watch history, newest first
+ * Pass nextCursor as the before parameter to fetch older entries; it is null on the last page
+ */
+public class HistoryPage {
+    private List<HistoryEntry> items;
+    private String nextCursor;
+
+    public HistoryPage() {
+    }
+
+    public HistoryPage(List<HistoryEntry> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<HistoryEntry> getItems() {
+        return items;
+    }
+
+    public void setItems(List<HistoryEntry> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
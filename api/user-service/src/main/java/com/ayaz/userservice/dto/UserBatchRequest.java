@@ -0,0 +1,31 @@
+package com.ayaz.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Request DTO for bulk user lookups
+ * Exactly one of ids or usernames must be provided
+ */
+public class UserBatchRequest {
+    private List<String> ids;
+    private List<String> usernames;
+
+    public UserBatchRequest() {
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+}
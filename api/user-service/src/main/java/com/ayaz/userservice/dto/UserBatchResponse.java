@@ -0,0 +1,38 @@
+package com.ayaz.userservice.dto;
+
+import com.ayaz.userservice.model.User;
+
+import java.util.List;
+
+/**
+ * Response DTO for bulk user lookups
+ * items is aligned with the requested keys (null where nothing was found); missing lists those keys
+ */
+public class UserBatchResponse {
+    private List<User> items;
+    private List<String> missing;
+
+    public UserBatchResponse() {
+    }
+
+    public UserBatchResponse(List<User> items, List<String> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+
+    public List<User> getItems() {
+        return items;
+    }
+
+    public void setItems(List<User> items) {
+        this.items = items;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ayaz.userservice.dto;
+
+import com.ayaz.userservice.model.User;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated user listing
+ * Pass nextCursor as the after parameter to fetch the following page; it is null on the last page
+ */
+public class UserPage {
+    private List<User> items;
+    private String nextCursor;
+
+    public UserPage() {
+    }
+
+    public UserPage(List<User> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<User> getItems() {
+        return items;
+    }
+
+    public void setItems(List<User> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
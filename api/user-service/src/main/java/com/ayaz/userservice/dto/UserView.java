@@ -0,0 +1,90 @@
+package com.ayaz.userservice.dto;
+
+import com.ayaz.userservice.model.User;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Read models for user responses, each naming the fields fetched from MongoDB
+ * summary - what a video page needs to render the uploader
+ * profile - the full profile (the default)
+ * full    - every stored field; currently the same as profile since watch history
+ *           moved to its own collection (/api/users/{id}/history)
+ */
+public enum UserView {
+    SUMMARY("id", "username", "fullName", "avatar"),
+    PROFILE("id", "username", "fullName", "avatar", "email", "coverImage", "version"),
+    FULL("id", "username", "fullName", "avatar", "email", "coverImage", "version");
+
+    // Every field a client may ask for with fields=
+    public static final Set<String> ALL_FIELDS = FULL.fields;
+
+    private final Set<String> fields;
+
+    UserView(String... fields) {
+        this.fields = Set.copyOf(new LinkedHashSet<>(Arrays.asList(fields)));
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Resolves the fields to return from the fields= and view= request parameters
+     * fields takes precedence; id is always included
+     * Throws IllegalArgumentException for an unknown view or field name
+     */
+    public static Set<String> resolve(String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            Set<String> selected = new LinkedHashSet<>();
+            selected.add("id");
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (!ALL_FIELDS.contains(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+                selected.add(name);
+            }
+            return selected;
+        }
+        if (view == null || view.isBlank()) {
+            return PROFILE.fields;
+        }
+        for (UserView candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(view.trim())) {
+                return candidate.fields;
+            }
+        }
+        throw new IllegalArgumentException("Unknown view: " + view + " (expected summary, profile or full)");
+    }
+
+    /**
+     * Copies only the selected fields of the user into a new object
+     * Unselected fields stay null and are left out of the JSON response
+     */
+    public static User project(User source, Set<String> fields) {
+        User target = new User();
+        target.setId(source.getId());
+        if (fields.contains("username")) {
+            target.setUsername(source.getUsername());
+        }
+        if (fields.contains("fullName")) {
+            target.setFullName(source.getFullName());
+        }
+        if (fields.contains("avatar")) {
+            target.setAvatar(source.getAvatar());
+        }
+        if (fields.contains("email")) {
+            target.setEmail(source.getEmail());
+        }
+        if (fields.contains("coverImage")) {
+            target.setCoverImage(source.getCoverImage());
+        }
+        if (fields.contains("version")) {
+            target.setVersion(source.getVersion());
+        }
+        return target;
+    }
+}
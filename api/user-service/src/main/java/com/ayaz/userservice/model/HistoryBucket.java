@@ -0,0 +1,79 @@
+package com.ayaz.userservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One bucket of a user's watch history in MongoDB
+ * Holds at most user.history.bucket-size entries from a single UTC day, appended with $push,
+ * so an append touches one small document no matter how long the history is.
+ * Buckets are removed by MongoDB once expireAt has passed (retention policy).
+ */
+@Document(collection = "watch_history")
+@CompoundIndex(name = "user_day", def = "{'userId': 1, 'day': -1, '_id': -1}")
+public class HistoryBucket {
+    @Id
+    private String id;
+    private String userId;
+    private Instant day; // Start of the UTC day the entries belong to
+    private int count; // Number of entries, used to start a new bucket once full
+    private List<HistoryEntry> entries; // Oldest first
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expireAt;
+
+    public HistoryBucket() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Instant getDay() {
+        return day;
+    }
+
+    public void setDay(Instant day) {
+        this.day = day;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<HistoryEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<HistoryEntry> entries) {
+        this.entries = entries;
+    }
+
+    public Instant getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(Instant expireAt) {
+        this.expireAt = expireAt;
+    }
+}
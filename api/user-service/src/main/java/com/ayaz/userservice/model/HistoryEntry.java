@@ -0,0 +1,35 @@
+package com.ayaz.userservice.model;
+
+import java.time.Instant;
+
+/**
+ * A single watched video inside a history bucket
+ */
+public class HistoryEntry {
+    private String videoId;
+    private Instant watchedAt;
+
+    public HistoryEntry() {
+    }
+
+    public HistoryEntry(String videoId, Instant watchedAt) {
+        this.videoId = videoId;
+        this.watchedAt = watchedAt;
+    }
+
+    public String getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(String videoId) {
+        this.videoId = videoId;
+    }
+
+    public Instant getWatchedAt() {
+        return watchedAt;
+    }
+
+    public void setWatchedAt(Instant watchedAt) {
+        this.watchedAt = watchedAt;
+    }
+}
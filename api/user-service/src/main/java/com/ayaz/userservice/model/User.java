@@ -1,23 +1,28 @@
 package com.ayaz.userservice.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
-import java.util.List;
 
 /**
  * User entity class for storing user profile information in MongoDB
  * This class represents a user profile in the user management system
+ * Watch history is kept separately in HistoryBucket documents
  */
 @Document(collection = "users")
+@JsonInclude(JsonInclude.Include.NON_NULL) // Fields left out of a projection are omitted from responses
 public class User {
     @Id
     private String id;
     private String fullName;
+    @Indexed(unique = true)
     private String username;
+    @Indexed(unique = true)
     private String email;
     private String avatar; // Stores the MinIO object key (e.g., user-123/avatar/image.jpg)
     private String coverImage; // Stores the MinIO object key
-    private List<String> history; // Changed from ObjectId to String for simplicity
+    private Long version; // Incremented on every profile update; compared against If-Match (missing = 0)
 
     // Default constructor
     public User() {
@@ -77,11 +82,11 @@ public class User {
         this.coverImage = coverImage;
     }
 
-    public List<String> getHistory() {
-        return history;
+    public Long getVersion() {
+        return version;
     }
 
-    public void setHistory(List<String> history) {
-        this.history = history;
+    public void setVersion(Long version) {
+        this.version = version;
     }
-}
\ No newline at end of file
+}
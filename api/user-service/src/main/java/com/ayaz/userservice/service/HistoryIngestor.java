@@ -0,0 +1,238 @@
+package com.ayaz.userservice.service;
+
+import com.ayaz.userservice.dto.HistoryEvent;
+import com.ayaz.userservice.model.HistoryBucket;
+import com.ayaz.userservice.model.HistoryEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched ingestion of watch-history events
+ *
+ * Requests only enqueue events into a bounded in-memory queue. A single flusher thread
+ * drains it whenever batch-size events are waiting or the oldest has waited flush-interval,
+ * coalesces the batch per user and day, and writes it with one unordered bulkWrite of
+ * $push upserts. A full queue rejects new events so callers can back off; on shutdown the
+ * queue is drained before the service stops.
+ */
+@Component
+public class HistoryIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryIngestor.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final WatchHistoryService watchHistoryService;
+    private final BlockingQueue<QueuedEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration drainTimeout;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushedEvents = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong bucketWrites = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+    private volatile long lastFlushLagMillis;
+    private volatile long maxFlushLagMillis;
+
+    public HistoryIngestor(MongoTemplate mongoTemplate, WatchHistoryService watchHistoryService,
+                           @Value("${user.history.ingest.queue-capacity:10000}") int queueCapacity,
+                           @Value("${user.history.ingest.batch-size:500}") int batchSize,
+                           @Value("${user.history.ingest.flush-interval:200ms}") Duration flushInterval,
+                           @Value("${user.history.ingest.drain-timeout:10s}") Duration drainTimeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.watchHistoryService = watchHistoryService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.drainTimeout = drainTimeout;
+        this.flusher = new Thread(this::run, "history-flusher");
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    /**
+     * Queues a history event without waiting for it to be written
+     * Returns false when the queue is full or the service is shutting down
+     */
+    public boolean offer(HistoryEvent event) {
+        Instant watchedAt = event.getWatchedAt() != null ? event.getWatchedAt() : Instant.now();
+        if (running && queue.offer(new QueuedEvent(event.getUserId(), new HistoryEntry(event.getVideoId(), watchedAt)))) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Stops accepting events and waits up to drain-timeout for queued events to be written
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(drainTimeout.toMillis());
+        if (flusher.isAlive()) {
+            log.warn("History flusher did not drain within {}, {} events dropped", drainTimeout, queue.size());
+            flusher.interrupt();
+        }
+    }
+
+    /**
+     * Returns queue depth, lag and flush batch metrics
+     */
+    public Map<String, Object> getStats() {
+        QueuedEvent oldest = queue.peek();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueRemainingCapacity", queue.remainingCapacity());
+        stats.put("oldestQueuedMillis", oldest == null ? 0 : ageMillis(oldest, System.nanoTime()));
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("flushedEvents", flushedEvents.get());
+        stats.put("failedEvents", failedEvents.get());
+        stats.put("flushes", flushes.get());
+        stats.put("bucketWrites", bucketWrites.get());
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("maxBatchSize", maxBatchSize);
+        long flushCount = flushes.get();
+        stats.put("averageBatchSize", flushCount == 0 ? 0 : (double) flushedEvents.get() / flushCount);
+        stats.put("lastFlushLagMillis", lastFlushLagMillis);
+        stats.put("maxFlushLagMillis", maxFlushLagMillis);
+        return stats;
+    }
+
+    // Flusher loop - runs until shutdown has been requested and the queue is empty
+    private void run() {
+        List<QueuedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                flush(batch);
+                return;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Waits for the first event, then gathers more until the batch is full or the oldest event is due
+    private void collect(List<QueuedEvent> batch) throws InterruptedException {
+        QueuedEvent first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = first.enqueuedAt + flushIntervalNanos;
+        while (batch.size() < batchSize && running) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            QueuedEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+        // While draining on shutdown, take whatever is already queued without waiting
+        queue.drainTo(batch, batchSize - batch.size());
+    }
+
+    // Coalesces the batch per user and day and writes it with a single bulkWrite
+    private void flush(List<QueuedEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long lag = ageMillis(batch.get(0), now);
+
+        // userId -> day -> entries in arrival order
+        Map<String, Map<Instant, List<HistoryEntry>>> grouped = new LinkedHashMap<>();
+        for (QueuedEvent event : batch) {
+            Instant day = event.entry.getWatchedAt().truncatedTo(ChronoUnit.DAYS);
+            grouped.computeIfAbsent(event.userId, key -> new LinkedHashMap<>())
+                    .computeIfAbsent(day, key -> new ArrayList<>())
+                    .add(event.entry);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HistoryBucket.class);
+        int writes = 0;
+        for (Map.Entry<String, Map<Instant, List<HistoryEntry>>> user : grouped.entrySet()) {
+            for (Map.Entry<Instant, List<HistoryEntry>> day : user.getValue().entrySet()) {
+                // One upsert per bucket-size chunk, so a group larger than a bucket never overfills one
+                List<Pair<Query, Update>> appends = watchHistoryService.appendOperations(user.getKey(), day.getKey(), day.getValue());
+                bulk.upsert(appends);
+                writes += appends.size();
+            }
+        }
+
+        try {
+            bulk.execute();
+            flushedEvents.addAndGet(batch.size());
+            bucketWrites.addAndGet(writes);
+        } catch (Exception e) {
+            failedEvents.addAndGet(batch.size());
+            log.error("Failed to write {} history events: {}", batch.size(), e.getMessage());
+        }
+
+        flushes.incrementAndGet();
+        lastBatchSize = batch.size();
+        maxBatchSize = Math.max(maxBatchSize, batch.size());
+        lastFlushLagMillis = lag;
+        maxFlushLagMillis = Math.max(maxFlushLagMillis, lag);
+    }
+
+    private static long ageMillis(QueuedEvent event, long nowNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nowNanos - event.enqueuedAt);
+    }
+
+    /**
+     * A history entry waiting in the queue, with the time it was accepted
+     */
+    private static class QueuedEvent {
+        private final String userId;
+        private final HistoryEntry entry;
+        private final long enqueuedAt = System.nanoTime();
+
+        QueuedEvent(String userId, HistoryEntry entry) {
+            this.userId = userId;
+            this.entry = entry;
+        }
+    }
+}
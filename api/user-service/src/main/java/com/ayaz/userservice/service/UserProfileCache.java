@@ -0,0 +1,136 @@
+package com.ayaz.userservice.service;
+
+import com.ayaz.userservice.dto.UserView;
+import com.ayaz.userservice.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process near-cache for user profile lookups by id and by username
+ * Holds the profile view only, so fields outside it are never cached.
+ *
+ * Entries are bounded by size (W-TinyLFU eviction) and expire after user.cache.ttl.
+ * Misses are cached too, for the much shorter user.cache.negative-ttl. Concurrent lookups
+ * of the same key wait for a single MongoDB query instead of each issuing their own.
+ *
+ * Users registered through auth-service are inserted straight into the shared users
+ * collection without passing through this service, so nothing invalidates a cached miss
+ * for them. A lookup made just before registration keeps answering 404 until its
+ * negative-ttl runs out, which is why that TTL is kept to a few seconds.
+ */
+@Component
+public class UserProfileCache {
+
+    private final UserQueryService userQueryService;
+    private final Cache<String, Optional<User>> byId;
+    private final Cache<String, Optional<User>> byUsername;
+
+    public UserProfileCache(UserQueryService userQueryService,
+                            @Value("${user.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${user.cache.ttl:5m}") Duration ttl,
+                            @Value("${user.cache.negative-ttl:2s}") Duration negativeTtl) {
+        this.userQueryService = userQueryService;
+        this.byId = newCache(maximumSize, ttl, negativeTtl);
+        this.byUsername = newCache(maximumSize, ttl, negativeTtl);
+    }
+
+    /**
+     * Finds a user's profile by ID through the cache
+     * Returns the user if found, null if not found
+     */
+    public User findById(String id) {
+        return byId.get(id, key -> Optional.ofNullable(userQueryService.findById(key, UserView.PROFILE.getFields()))).orElse(null);
+    }
+
+    /**
+     * Finds a user's profile by username through the cache
+     * Returns the user if found, null if not found
+     */
+    public User findByUsername(String username) {
+        return byUsername.get(username, key -> Optional.ofNullable(userQueryService.findByUsername(key, UserView.PROFILE.getFields()))).orElse(null);
+    }
+
+    /**
+     * Drops every cached entry for the user, including cached misses
+     * Called after the user is created, updated or deleted
+     */
+    public void invalidate(User user) {
+        if (user.getId() != null) {
+            byId.invalidate(user.getId());
+        }
+        if (user.getUsername() != null) {
+            byUsername.invalidate(user.getUsername());
+        }
+    }
+
+    /**
+     * Returns hit, miss, load and eviction counts for both caches
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("byId", toMap(byId));
+        stats.put("byUsername", toMap(byUsername));
+        return stats;
+    }
+
+    // Size-bounded cache whose entries expire after ttl, or negativeTtl for cached misses
+    private static Cache<String, Optional<User>> newCache(long maximumSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ProfileExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    private static Map<String, Object> toMap(Cache<String, Optional<User>> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", cache.estimatedSize());
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("loads", stats.loadCount());
+        map.put("loadFailures", stats.loadFailureCount());
+        map.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        map.put("evictions", stats.evictionCount());
+        return map;
+    }
+
+    /**
+     * Expires found users after the normal TTL and cached misses after the negative TTL
+     * Reads do not extend an entry's lifetime
+     */
+    private static class ProfileExpiry implements Expiry<String, Optional<User>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        ProfileExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<User> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<User> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<User> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.ayaz.userservice.service;
+
+import com.ayaz.userservice.dto.UserBatchResponse;
+import com.ayaz.userservice.dto.UserPage;
+import com.ayaz.userservice.model.User;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read-side queries over the users collection
+ * Every query fetches only the fields of the requested view, listings page by _id
+ * (keyset pagination) and exports stream through a MongoDB cursor
+ */
+@Service
+public class UserQueryService {
+
+    // Documents fetched per round trip while streaming an export
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserQueryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Finds a user by ID, fetching only the given fields
+     * Returns the user if found, null if not found
+     */
+    public User findById(String id, Set<String> fields) {
+        return mongoTemplate.findOne(project(Query.query(Criteria.where("_id").is(id)), fields), User.class);
+    }
+
+    /**
+     * Finds a user by username, fetching only the given fields
+     * Returns the user if found, null if not found
+     */
+    public User findByUsername(String username, Set<String> fields) {
+        return mongoTemplate.findOne(project(Query.query(Criteria.where("username").is(username)), fields), User.class);
+    }
+
+    /**
+     * Finds many users by ID with a single $in query
+     * Results follow the order of the requested ids; unknown ids are reported as missing
+     */
+    public UserBatchResponse findAllByIds(List<String> ids, Set<String> fields) {
+        return findAllIn("_id", ids, fields, User::getId);
+    }
+
+    /**
+     * Finds many users by username with a single $in query
+     * Results follow the order of the requested usernames; unknown usernames are reported as missing
+     */
+    public UserBatchResponse findAllByUsernames(List<String> usernames, Set<String> fields) {
+        Set<String> withKey = new LinkedHashSet<>(fields);
+        withKey.add("username");
+        return findAllIn("username", usernames, withKey, User::getUsername);
+    }
+
+    /**
+     * Returns up to limit users whose _id is greater than the after cursor, in _id order
+     * The cost of a page does not grow with its position, unlike skip/offset paging
+     * Throws IllegalArgumentException when after is not a valid cursor
+     */
+    public UserPage findPage(String after, int limit, Set<String> fields) {
+        Query query = project(new Query(), fields).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit + 1);
+        if (after != null && !after.isEmpty()) {
+            query.addCriteria(Criteria.where("_id").gt(toObjectId(after)));
+        }
+
+        // One extra document tells whether another page follows
+        List<User> users = mongoTemplate.find(query, User.class);
+        if (users.size() <= limit) {
+            return new UserPage(users, null);
+        }
+        List<User> items = users.subList(0, limit);
+        return new UserPage(items, items.get(limit - 1).getId());
+    }
+
+    /**
+     * Passes every user to the consumer as it is read from the cursor
+     * Only one batch of documents is held in memory at a time
+     */
+    public void streamAll(Set<String> fields, Consumer<User> consumer) {
+        Query query = project(new Query(), fields).with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(EXPORT_BATCH_SIZE);
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            users.forEach(consumer);
+        }
+    }
+
+    // Runs one $in query over the distinct keys and lines the results up with the request
+    private UserBatchResponse findAllIn(String field, List<String> keys, Set<String> fields, Function<User, String> keyOf) {
+        Query query = project(Query.query(Criteria.where(field).in(new LinkedHashSet<>(keys))), fields);
+        Map<String, User> found = new HashMap<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            found.put(keyOf.apply(user), user);
+        }
+
+        List<User> items = new ArrayList<>(keys.size());
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            User user = found.get(key);
+            items.add(user);
+            if (user == null) {
+                missing.add(key);
+            }
+        }
+        return new UserBatchResponse(items, missing);
+    }
+
+    // Limits the documents returned by the query to the selected fields
+    private static Query project(Query query, Set<String> fields) {
+        fields.forEach(field -> query.fields().include(field));
+        return query;
+    }
+
+    // Cursors are the _id of the last user on the previous page
+    private static ObjectId toObjectId(String cursor) {
+        if (!ObjectId.isValid(cursor)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return new ObjectId(cursor);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ayaz.userservice.service;
+
+import com.ayaz.userservice.dto.UserView;
+import com.ayaz.userservice.model.User;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies profile edits as single atomic field-level updates
+ *
+ * Provided fields become one $set (plus $inc of version) executed with findAndModify,
+ * so an edit is one round trip, never rewrites the whole document and cannot lose a
+ * concurrent edit to other fields. Fields owned by the auth-service in the shared
+ * users collection are never touched.
+ */
+@Service
+public class UserUpdateService {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserProfileCache profileCache;
+
+    public UserUpdateService(MongoTemplate mongoTemplate, UserProfileCache profileCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.profileCache = profileCache;
+    }
+
+    /**
+     * Sets the non-null updatable fields of changes on the user
+     * When expectedVersion is given the update only applies if the stored version matches
+     * Returns the updated profile, or null if the user does not exist
+     * Throws VersionMismatchException when the version check fails
+     * Throws IllegalArgumentException when no updatable field is provided
+     */
+    public User update(String id, User changes, Long expectedVersion) {
+        Update update = toUpdate(changes);
+
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            // Documents written before versioning have no version field and count as version 0
+            criteria = expectedVersion == 0
+                    ? criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false))
+                    : criteria.and("version").is(expectedVersion);
+        }
+
+        Query query = Query.query(criteria);
+        UserView.PROFILE.getFields().forEach(field -> query.fields().include(field));
+
+        User updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (updated == null) {
+            // Nothing matched - tell a missing user apart from a stale version
+            if (expectedVersion != null && mongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), User.class)) {
+                throw new VersionMismatchException("User " + id + " was modified; expected version " + expectedVersion);
+            }
+            return null;
+        }
+        profileCache.invalidate(updated);
+        return updated;
+    }
+
+    // Translates the provided fields into $set; username is immutable and version is managed here
+    private static Update toUpdate(User changes) {
+        Update update = new Update();
+        if (changes.getFullName() != null) {
+            update.set("fullName", changes.getFullName());
+        }
+        if (changes.getEmail() != null) {
+            update.set("email", changes.getEmail());
+        }
+        if (changes.getAvatar() != null) {
+            update.set("avatar", changes.getAvatar());
+        }
+        if (changes.getCoverImage() != null) {
+            update.set("coverImage", changes.getCoverImage());
+        }
+        if (update.getUpdateObject().isEmpty()) {
+            throw new IllegalArgumentException("No updatable fields provided (fullName, email, avatar, coverImage)");
+        }
+        return update.inc("version", 1);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ayaz.userservice.service;
+
+/**
+ * Thrown when a conditional update names a version the user no longer has
+ */
+public class VersionMismatchException extends RuntimeException {
+
+    public VersionMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,295 @@
+package com.ayaz.userservice.service;
+
+import com.ayaz.userservice.dto.HistoryPage;
+import com.ayaz.userservice.model.HistoryBucket;
+import com.ayaz.userservice.model.HistoryEntry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores and reads watch history in time-bucketed documents
+ *
+ * Each bucket holds up to bucket-size entries of one user for one UTC day. Appending is a
+ * single atomic upsert with $push into the current bucket, so its cost does not depend on
+ * how much history the user already has. Buckets expire through a TTL index after the
+ * retention period.
+ */
+@Service
+public class WatchHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchHistoryService.class);
+
+    // Buckets read per round trip while paging; a page usually fits in one or two buckets
+    private static final int READ_BATCH_SIZE = 4;
+    // Marker on a user document whose embedded history is being migrated, and how long it holds
+    private static final String MIGRATION_FIELD = "historyMigration";
+    private static final Duration MIGRATION_LEASE = Duration.ofMinutes(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final int bucketSize;
+    private final Duration retention;
+
+    public WatchHistoryService(MongoTemplate mongoTemplate,
+                               @Value("${user.history.bucket-size:200}") int bucketSize,
+                               @Value("${user.history.retention:365d}") Duration retention) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketSize = Math.max(1, bucketSize);
+        this.retention = retention;
+    }
+
+    /**
+     * Appends a watched video to the user's history
+     * Pushes into the day's open bucket, or creates a new bucket when none has room
+     */
+    public void append(String userId, String videoId, Instant watchedAt) {
+        Instant day = watchedAt.truncatedTo(ChronoUnit.DAYS);
+        mongoTemplate.upsert(openBucket(userId, day, 1), appendUpdate(day, List.of(new HistoryEntry(videoId, watchedAt))),
+                HistoryBucket.class);
+    }
+
+    /**
+     * Returns up to limit history entries, newest first
+     * Pass the returned nextCursor as before to continue with older entries
+     * Throws IllegalArgumentException when before is not a valid cursor
+     */
+    public HistoryPage findPage(String userId, String before, int limit) {
+        HistoryCursor cursor = before == null || before.isEmpty() ? null : HistoryCursor.parse(before);
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor != null) {
+            // The bucket holding the cursor and every older bucket
+            criteria.orOperator(
+                    Criteria.where("day").lt(cursor.day),
+                    Criteria.where("day").is(cursor.day).and("_id").lte(new ObjectId(cursor.bucketId)));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "day").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .cursorBatchSize(READ_BATCH_SIZE);
+
+        List<HistoryEntry> items = new ArrayList<>(limit);
+        String nextCursor = null;
+        try (Stream<HistoryBucket> buckets = mongoTemplate.stream(query, HistoryBucket.class)) {
+            Iterator<HistoryBucket> iterator = buckets.iterator();
+            outer:
+            while (iterator.hasNext()) {
+                HistoryBucket bucket = iterator.next();
+                List<HistoryEntry> entries = bucket.getEntries() != null ? bucket.getEntries() : List.of();
+                int start = cursor != null && bucket.getId().equals(cursor.bucketId)
+                        ? Math.min(cursor.index, entries.size()) - 1
+                        : entries.size() - 1;
+                for (int i = start; i >= 0; i--) {
+                    if (items.size() == limit) {
+                        nextCursor = new HistoryCursor(bucket.getDay(), bucket.getId(), i + 1).toString();
+                        break outer;
+                    }
+                    items.add(entries.get(i));
+                }
+            }
+        }
+        return new HistoryPage(items, nextCursor);
+    }
+
+    /**
+     * Deletes the user's entire watch history
+     * Returns the number of buckets removed
+     */
+    public long clear(String userId) {
+        return mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), HistoryBucket.class)
+                .getDeletedCount();
+    }
+
+    /**
+     * Moves history still embedded in user documents into buckets and removes the array
+     *
+     * Runs at startup on every instance. A user is first leased with a findAndModify that
+     * marks historyMigration, so instances never work on the same user at once. The buckets
+     * are written next, and only once that write succeeded is the array unset. Bucket ids are
+     * derived from the user id and the migration start time, which a later lease keeps, so a
+     * user whose migration was interrupted is retried after the lease expires without
+     * duplicating any entries. Documents without a history field are not touched.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedHistory() {
+        int migrated = 0;
+        Document user;
+        while ((user = leaseUnmigratedUser()) != null) {
+            Object id = user.get("_id");
+            try {
+                Instant startedAt = user.get(MIGRATION_FIELD, Document.class).getDate("startedAt").toInstant();
+                List<String> videos = user.getList("history", String.class, List.of());
+                if (!videos.isEmpty()) {
+                    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HistoryBucket.class);
+                    bulk.upsert(migrationOperations(id.toString(), startedAt, videos));
+                    bulk.execute();
+                }
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                        new Update().unset("history").unset(MIGRATION_FIELD), "users");
+                migrated++;
+            } catch (Exception e) {
+                // The array stays in place; the user is retried once the lease has expired
+                log.warn("Failed to migrate embedded watch history of user {}: {}", id, e.getMessage());
+            }
+        }
+        if (migrated > 0) {
+            log.info("Moved embedded watch history of {} users into {}", migrated, "watch_history");
+        }
+    }
+
+    // Leases one user that still has an embedded history and no live lease; returns it or null
+    private Document leaseUnmigratedUser() {
+        Date now = new Date();
+        Query query = Query.query(new Criteria().andOperator(
+                Criteria.where("history").exists(true),
+                new Criteria().orOperator(
+                        Criteria.where(MIGRATION_FIELD + ".leaseUntil").exists(false),
+                        Criteria.where(MIGRATION_FIELD + ".leaseUntil").lt(now))));
+        query.fields().include("history").include(MIGRATION_FIELD);
+        // $min keeps the start time of an earlier, interrupted attempt
+        Update lease = new Update()
+                .set(MIGRATION_FIELD + ".leaseUntil", new Date(now.getTime() + MIGRATION_LEASE.toMillis()))
+                .min(MIGRATION_FIELD + ".startedAt", now);
+        return mongoTemplate.findAndModify(query, lease, FindAndModifyOptions.options().returnNew(true),
+                Document.class, "users");
+    }
+
+    /**
+     * Builds idempotent upserts that store an embedded history as buckets of at most bucket-size
+     * The list has no timestamps, so entries keep their order under the migration start time
+     */
+    private List<Pair<Query, Update>> migrationOperations(String userId, Instant startedAt, List<String> videos) {
+        Instant day = startedAt.truncatedTo(ChronoUnit.DAYS);
+        List<Pair<Query, Update>> operations = new ArrayList<>();
+        for (int start = 0, chunk = 0; start < videos.size(); start += bucketSize, chunk++) {
+            List<HistoryEntry> entries = new ArrayList<>();
+            for (String videoId : videos.subList(start, Math.min(start + bucketSize, videos.size()))) {
+                entries.add(new HistoryEntry(videoId, startedAt));
+            }
+            operations.add(Pair.of(
+                    Query.query(Criteria.where("_id").is(migratedBucketId(userId, startedAt, chunk))),
+                    new Update()
+                            .setOnInsert("userId", userId)
+                            .setOnInsert("day", day)
+                            .setOnInsert("count", entries.size())
+                            .setOnInsert("entries", entries)
+                            .setOnInsert("expireAt", day.plus(retention))));
+        }
+        return operations;
+    }
+
+    // Start time in the timestamp bytes, then a hash of the user id and the chunk number, so ids
+    // are the same on every attempt and sort in chunk order
+    private static ObjectId migratedBucketId(String userId, Instant startedAt, int chunk) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(userId.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer id = ByteBuffer.allocate(12);
+            id.putInt((int) startedAt.getEpochSecond());
+            id.put(hash, 0, 5);
+            id.put((byte) (chunk >>> 16)).putShort((short) chunk);
+            return new ObjectId(id.array());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds the upserts that append one user's entries for one day, oldest first
+     * The entries are split into chunks of at most bucket-size, so no bucket ever grows past it.
+     * The partial chunk comes first: the oldest entries then go to the day's open bucket when
+     * they fit, and every later chunk starts a newer bucket.
+     */
+    List<Pair<Query, Update>> appendOperations(String userId, Instant day, List<HistoryEntry> entries) {
+        List<Pair<Query, Update>> operations = new ArrayList<>();
+        int start = 0;
+        int end = entries.size() % bucketSize != 0 ? entries.size() % bucketSize : Math.min(bucketSize, entries.size());
+        while (start < entries.size()) {
+            List<HistoryEntry> chunk = entries.subList(start, end);
+            operations.add(Pair.of(openBucket(userId, day, chunk.size()), appendUpdate(day, chunk)));
+            start = end;
+            end = Math.min(start + bucketSize, entries.size());
+        }
+        return operations;
+    }
+
+    /**
+     * Matches the user's bucket for the day that still has room for the given number of entries
+     * When nothing matches, an upsert creates a new bucket from the equality fields
+     */
+    Query openBucket(String userId, Instant day, int entries) {
+        return Query.query(Criteria.where("userId").is(userId).and("day").is(day)
+                .and("count").lte(bucketSize - entries));
+    }
+
+    /**
+     * Pushes the entries and sets the id and expiry when the bucket is first created
+     * The id is generated here rather than by the server, so buckets created by one unordered
+     * bulk write still sort in the order their entries were appended
+     */
+    Update appendUpdate(Instant day, List<HistoryEntry> entries) {
+        return new Update()
+                .push("entries").each(entries.toArray())
+                .inc("count", entries.size())
+                .setOnInsert("_id", new ObjectId())
+                .setOnInsert("expireAt", day.plus(retention));
+    }
+
+    /**
+     * Position in the history: entries of the bucket below index, then all older buckets
+     * Serialized as <day millis>-<bucket id>-<index>
+     */
+    private static class HistoryCursor {
+        private final Instant day;
+        private final String bucketId;
+        private final int index;
+
+        HistoryCursor(Instant day, String bucketId, int index) {
+            this.day = day;
+            this.bucketId = bucketId;
+            this.index = index;
+        }
+
+        static HistoryCursor parse(String value) {
+            String[] parts = value.split("-");
+            try {
+                if (parts.length == 3 && ObjectId.isValid(parts[1])) {
+                    return new HistoryCursor(Instant.ofEpochMilli(Long.parseLong(parts[0])), parts[1],
+                            Integer.parseInt(parts[2]));
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the error below
+            }
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+
+        @Override
+        public String toString() {
+            return day.toEpochMilli() + "-" + bucketId + "-" + index;
+        }
+    }
+}
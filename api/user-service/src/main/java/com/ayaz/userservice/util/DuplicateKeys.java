@@ -0,0 +1,46 @@
+package com.ayaz.userservice.util;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for MongoDB duplicate-key (E11000) errors
+ * Lets callers rely on unique indexes instead of checking for existing values first
+ */
+public final class DuplicateKeys {
+
+    // E11000 duplicate key error collection: db.users index: username dup key: { ... }
+    private static final Pattern INDEX_PATTERN = Pattern.compile("index: (\\S+) dup key");
+
+    private DuplicateKeys() {
+    }
+
+    /**
+     * Returns the name of the unique index that was violated, or null if it cannot be determined
+     * Indexes created from @Indexed fields are named after the field (username, email)
+     */
+    public static String indexOf(DuplicateKeyException e) {
+        String message = e.getMessage();
+        if (message == null) {
+            return null;
+        }
+        Matcher matcher = INDEX_PATTERN.matcher(message);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Returns the conflict message shown to clients for the violated index
+     */
+    public static String messageFor(DuplicateKeyException e) {
+        String index = indexOf(e);
+        if ("username".equals(index)) {
+            return "Username is already taken";
+        }
+        if ("email".equals(index)) {
+            return "Email is already in use";
+        }
+        return "User already exists";
+    }
+}
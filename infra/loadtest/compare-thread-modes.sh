@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Load test comparing platform-thread and virtual-thread modes
+#
+# Measures login latency through the gateway while slow uploads keep the file route busy.
+# Start the stack in one mode, run this script with a label, then restart in the other
+# mode and run it again:
+#
+#   ./compare-thread-modes.sh platform   # services started normally (Java 17 or 21)
+#   ./compare-thread-modes.sh virtual    # services started with -Pvirtual-threads (Java 21)
+#
+# Requires: hey (https://github.com/rakyll/hey), curl, and a registered test user
+# Results are written to results-<label>.txt next to this script
+
+set -euo pipefail
+
+LABEL="${1:?usage: $0 <label>}"
+GATEWAY="${GATEWAY:-http://localhost:8080}"
+USERNAME="${USERNAME:-loadtest}"
+PASSWORD="${PASSWORD:-loadtest}"
+UPLOAD_SIZE_MB="${UPLOAD_SIZE_MB:-256}"
+UPLOAD_CONCURRENCY="${UPLOAD_CONCURRENCY:-300}"
+LOGIN_REQUESTS="${LOGIN_REQUESTS:-5000}"
+LOGIN_CONCURRENCY="${LOGIN_CONCURRENCY:-200}"
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+RESULTS="$DIR/results-$LABEL.txt"
+UPLOAD_FILE="$(mktemp)"
+trap 'rm -f "$UPLOAD_FILE"; kill $(jobs -p) 2>/dev/null || true' EXIT
+
+head -c "$((UPLOAD_SIZE_MB * 1024 * 1024))" /dev/urandom > "$UPLOAD_FILE"
+
+echo "== Baseline login latency ($LABEL)" | tee "$RESULTS"
+hey -n "$LOGIN_REQUESTS" -c "$LOGIN_CONCURRENCY" -m POST \
+    -T application/json -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" \
+    "$GATEWAY/api/auth/login" | tee -a "$RESULTS"
+
+# Saturate the file route with uploads capped at 1 MB/s each so they stay in flight
+for _ in $(seq "$UPLOAD_CONCURRENCY"); do
+    curl -s -o /dev/null --limit-rate 1M \
+        -F "file=@$UPLOAD_FILE" -F "fileType=video" \
+        "$GATEWAY/api/files/upload" &
+done
+sleep 5
+
+echo "== Login latency with $UPLOAD_CONCURRENCY slow uploads in flight ($LABEL)" | tee -a "$RESULTS"
+hey -n "$LOGIN_REQUESTS" -c "$LOGIN_CONCURRENCY" -m POST \
+    -T application/json -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" \
+    "$GATEWAY/api/auth/login" | tee -a "$RESULTS"
+
+echo "Results written to $RESULTS"
@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+# Failure-isolation check for the gateway's bulkheads, circuit breakers and deadlines
+#
+# Starts a stub "file service" that answers after a configurable delay (or with 500s),
+# floods the file route through the gateway, and measures login latency meanwhile.
+# Start the gateway with the file route pointed at the stub, and with rate limits off so
+# the numbers show upstream isolation rather than the per-client limiter:
+#
+#   cd api/api-gateway
+#   mvn spring-boot:run -Dspring-boot.run.arguments="--gateway.routes[2].uri=http://localhost:9103 \
+#       --gateway.routes[0].rate-limit-per-second=0 --gateway.routes[2].rate-limit-per-second=0"
+#
+#   ./slow-upstream.sh            # stub sleeps STUB_DELAY_MS before answering
+#   STUB_DELAY_MS=0 STUB_STATUS=500 ./slow-upstream.sh   # stub fails fast, which should open the circuit
+#
+# Requires: hey (https://github.com/rakyll/hey), curl, python3, and a registered test user
+
+set -euo pipefail
+
+GATEWAY="${GATEWAY:-http://localhost:8080}"
+USERNAME="${USERNAME:-loadtest}"
+PASSWORD="${PASSWORD:-loadtest}"
+STUB_PORT="${STUB_PORT:-9103}"
+STUB_DELAY_MS="${STUB_DELAY_MS:-30000}"
+STUB_STATUS="${STUB_STATUS:-200}"
+FILE_REQUESTS="${FILE_REQUESTS:-2000}"
+FILE_CONCURRENCY="${FILE_CONCURRENCY:-200}"
+LOGIN_REQUESTS="${LOGIN_REQUESTS:-2000}"
+LOGIN_CONCURRENCY="${LOGIN_CONCURRENCY:-50}"
+
+trap 'kill $(jobs -p) 2>/dev/null || true' EXIT
+
+# Stub upstream: every request waits STUB_DELAY_MS, then answers STUB_STATUS
+python3 - "$STUB_PORT" "$STUB_DELAY_MS" "$STUB_STATUS" <<'PY' &
+import sys, time
+from http.server import ThreadingHTTPServer, BaseHTTPRequestHandler
+
+port, delay_ms, status = int(sys.argv[1]), int(sys.argv[2]), int(sys.argv[3])
+
+class Handler(BaseHTTPRequestHandler):
+    def handle_any(self):
+        time.sleep(delay_ms / 1000)
+        body = b'{"stub":true}'
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(body)))
+        self.end_headers()
+        self.wfile.write(body)
+
+    do_GET = do_POST = do_PUT = do_DELETE = handle_any
+
+    def log_message(self, *args):
+        pass
+
+ThreadingHTTPServer(("0.0.0.0", port), Handler).serve_forever()
+PY
+sleep 1
+
+TOKEN="$(curl -s -X POST -H 'Content-Type: application/json' \
+    -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" "$GATEWAY/api/auth/login" \
+    | python3 -c 'import json,sys; print(json.load(sys.stdin)["data"]["accessToken"])')"
+
+echo "== Flooding the file route ($FILE_CONCURRENCY concurrent, stub delay ${STUB_DELAY_MS}ms, status $STUB_STATUS)"
+hey -n "$FILE_REQUESTS" -c "$FILE_CONCURRENCY" -H "Authorization: Bearer $TOKEN" \
+    "$GATEWAY/api/files/stub.bin" > /tmp/slow-upstream-files.txt &
+sleep 5
+
+echo "== Login latency while the file route is degraded"
+hey -n "$LOGIN_REQUESTS" -c "$LOGIN_CONCURRENCY" -m POST \
+    -T application/json -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" \
+    "$GATEWAY/api/auth/login"
+
+echo "== Circuit breakers and bulkheads"
+curl -s "$GATEWAY/gateway/circuits"
+echo
+
+wait %2 || true
+echo "== File route status codes (expect fast 503s once the bulkhead is full or the circuit is open)"
+grep -A10 "Status code distribution" /tmp/slow-upstream-files.txt || true